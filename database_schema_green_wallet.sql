@@ -17,6 +17,7 @@ CREATE TABLE IF NOT EXISTS green_wallets (
     is_external BOOLEAN DEFAULT FALSE,  -- Internal vs external wallet
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    ledger_seq BIGINT NOT NULL DEFAULT 0,  -- Last ledger event number of the wallet
     
     INDEX idx_wallet_number (wallet_number),
     INDEX idx_owner_type (owner_type),
@@ -62,7 +63,10 @@ CREATE TABLE IF NOT EXISTS carbon_credit_batches (
     
     INDEX idx_wallet (wallet_id),
     INDEX idx_project (project_id),
-    INDEX idx_status (status)
+    INDEX idx_status (status),
+    INDEX idx_wallet_open_fifo (wallet_id, remaining_amount, issued_at),  -- FIFO retirement
+    INDEX idx_wallet_issued (wallet_id, issued_at, id),                   -- Batch explorer pages
+    INDEX idx_wallet_status_project (wallet_id, status, project_id, total_amount, remaining_amount)  -- Batch aggregates
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ==================== TABLE: wallet_transactions ====================
@@ -71,7 +75,7 @@ CREATE TABLE IF NOT EXISTS wallet_transactions (
     id INT AUTO_INCREMENT PRIMARY KEY,
     wallet_id INT NOT NULL,
     batch_id INT NULL,  -- NULL for retirement transactions
-    type ENUM('ISSUE', 'RETIRE', 'TRANSFER') NOT NULL,
+    type ENUM('ISSUE', 'RETIRE', 'TRANSFER_IN', 'TRANSFER_OUT') NOT NULL,
     amount DECIMAL(15,2) NOT NULL,
     reference_note TEXT,  -- Description/reason for transaction
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -81,9 +85,72 @@ CREATE TABLE IF NOT EXISTS wallet_transactions (
     
     INDEX idx_wallet (wallet_id),
     INDEX idx_type (type),
+    INDEX idx_created (created_at),
+    INDEX idx_wallet_created (wallet_id, created_at, id)  -- Keyset pagination of history
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ==================== TABLE: wallet_ledger_events ====================
+-- Append-only credit ledger: one immutable event per movement, numbered per wallet
+CREATE TABLE IF NOT EXISTS wallet_ledger_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    wallet_id INT NOT NULL,
+    seq BIGINT NOT NULL,  -- 1, 2, 3... per wallet (green_wallets.ledger_seq)
+    type ENUM('OPENING', 'ISSUE', 'RETIRE', 'TRANSFER_IN', 'TRANSFER_OUT', 'ADJUSTMENT') NOT NULL,
+    available_delta DECIMAL(15,2) NOT NULL,
+    retired_delta DECIMAL(15,2) NOT NULL,
+    batch_id INT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    UNIQUE KEY uk_wallet_seq (wallet_id, seq),
+    INDEX idx_wallet_seq_deltas (wallet_id, seq, available_delta, retired_delta)  -- Covering index for replays
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ==================== TABLE: wallet_ledger_snapshots ====================
+-- Folded balances every 1000 events, so a replay reads snapshot + tail only
+CREATE TABLE IF NOT EXISTS wallet_ledger_snapshots (
+    wallet_id INT NOT NULL,
+    seq BIGINT NOT NULL,  -- Last event folded into the snapshot
+    available_credits DECIMAL(15,2) NOT NULL,
+    retired_credits DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    PRIMARY KEY (wallet_id, seq)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ==================== TABLE: wallet_operation_requests ====================
+-- Request ids of committed credit operations (retries and double submits are deduplicated)
+CREATE TABLE IF NOT EXISTS wallet_operation_requests (
+    request_id CHAR(36) PRIMARY KEY,  -- Client generated id (UUID)
+    operation VARCHAR(20) NOT NULL,   -- ISSUE, QUICK_ISSUE, RETIRE, TRANSFER
+    wallet_id INT NOT NULL,
+    fingerprint CHAR(64) NOT NULL,    -- SHA-256 of the request (operation, wallets, amount, reference)
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_created (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ==================== TABLE: wallet_number_sequence ====================
+-- Counter behind generated wallet numbers (reserved in blocks by the application)
+CREATE TABLE IF NOT EXISTS wallet_number_sequence (
+    name VARCHAR(32) PRIMARY KEY,
+    next_value BIGINT NOT NULL  -- Next counter value; reserved in blocks, permuted into a 6-digit number
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO wallet_number_sequence (name, next_value) VALUES ('wallet', 0);
+
+-- ==================== TABLE: portfolio_summary ====================
+-- Materialized issued / retired / transferred totals per owner type and project
+CREATE TABLE IF NOT EXISTS portfolio_summary (
+    owner_type VARCHAR(50) NOT NULL,
+    project_id INT NOT NULL,  -- 0 when the movement has no project
+    slot TINYINT NOT NULL,    -- wallet_id % 16, spreads concurrent updates over 16 rows
+    movements BIGINT NOT NULL DEFAULT 0,
+    issued DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    retired DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transferred DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (owner_type, project_id, slot),
+    INDEX idx_portfolio_slot (slot)  -- PortfolioService.rebuild locks and replaces one slot at a time
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ==================== SAMPLE DATA FOR TESTING ====================
 
 -- Sample Wallet 1: Enterprise Internal Wallet
@@ -113,6 +180,23 @@ VALUES
     (1, 1, 'ISSUE', 2000.00, 'Initial credit issuance from Solar Farm Project verification'),
     (1, 1, 'RETIRE', 749.50, 'Offset for Q1 2026 corporate carbon emissions');
 
+-- Open the ledger of the sample wallets from their balances
+INSERT INTO wallet_ledger_events (wallet_id, seq, type, available_delta, retired_delta)
+SELECT id, 1, 'OPENING', available_credits, retired_credits FROM green_wallets;
+UPDATE green_wallets SET ledger_seq = 1;
+
+-- Fill the portfolio summary from the sample transactions
+INSERT INTO portfolio_summary (owner_type, project_id, slot, movements, issued, retired, transferred)
+SELECT w.owner_type, COALESCE(b.project_id, 0), t.wallet_id % 16, COUNT(*),
+       SUM(CASE WHEN t.type = 'ISSUE' THEN t.amount ELSE 0 END),
+       SUM(CASE WHEN t.type = 'RETIRE' THEN t.amount ELSE 0 END),
+       SUM(CASE WHEN t.type = 'TRANSFER_OUT' THEN t.amount ELSE 0 END)
+FROM wallet_transactions t
+JOIN green_wallets w ON w.id = t.wallet_id
+LEFT JOIN carbon_credit_batches b ON b.id = t.batch_id
+WHERE t.type <> 'TRANSFER_IN'
+GROUP BY w.owner_type, COALESCE(b.project_id, 0), t.wallet_id % 16;
+
 -- ==================== USEFUL QUERIES ====================
 
 -- View wallet summary with credit details
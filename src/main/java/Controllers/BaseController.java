@@ -1,5 +1,6 @@
 package Controllers;
 
+import Utils.Refreshable;
 import Utils.ThemeManager;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -9,7 +10,7 @@ import javafx.scene.control.ComboBox;
  * Base controller with common functionality like theme switching.
  * All your controllers can extend this class to inherit theme switching capability.
  */
-public abstract class BaseController {
+public abstract class BaseController implements Refreshable {
     
     @FXML
     protected ComboBox<String> themeSelector;
@@ -48,6 +49,19 @@ public abstract class BaseController {
         ThemeManager.getInstance().setTheme(selectedTheme);
     }
     
+    /**
+     * Called when the cached view is shown again.
+     * Child controllers override it (calling super) to reload their data.
+     */
+    @Override
+    public void onShow() {
+        if (themeSelector != null) {
+            // The theme may have been changed from another screen
+            String currentTheme = ThemeManager.getInstance().getCurrentTheme();
+            themeSelector.setValue(ThemeManager.getInstance().getDisplayName(currentTheme));
+        }
+    }
+
     /**
      * Override in child controllers for initialization logic
      */
@@ -7,16 +7,28 @@ import javafx.scene.layout.FlowPane;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import Models.CritereImpact;
 import Models.Evaluation;
 import Models.Projet;
+import Models.ProjetStatistics;
 import Services.CritereImpactService;
 import Services.EvaluationService;
+import Services.ScoringService;
+import Services.StatisticsService;
 import org.GreenLedger.MainFX;
 import Services.ProjetService;
+import Utils.FxLoader;
+import Utils.ListDiff;
 
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Timestamp;
 
 public class CarbonAuditController extends BaseController {
@@ -71,6 +83,9 @@ public class CarbonAuditController extends BaseController {
     private final EvaluationService evaluationService = new EvaluationService();
     private final ProjetService projetService = new ProjetService();
     private final CritereImpactService critereImpactService = new CritereImpactService();
+    private final ScoringService scoringService = ScoringService.getInstance();
+    private final StatisticsService statisticsService = StatisticsService.getInstance();
+    private final FxLoader loader = new FxLoader();
 
     private Integer selectedEvaluationId;
 
@@ -94,6 +109,8 @@ public class CarbonAuditController extends BaseController {
             btnSettings.setOnAction(event -> showSettings());
         }
 
+        loader.bindTo(tableAudits != null ? tableAudits : tableProjets);
+
         if (tableAudits != null) {
             tableAudits.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
             tableAudits.setFixedCellSize(36);
@@ -210,10 +227,24 @@ public class CarbonAuditController extends BaseController {
         selectProjetIfSet();
     }
 
+    @Override
+    public void onShow() {
+        super.onShow();
+        refreshProjets();
+        refreshEvaluations();
+        refreshCriteres();
+    }
+
     private void refreshProjets() {
-        ObservableList<Projet> projets = FXCollections.observableArrayList(projetService.afficher());
+        loader.load("projets", projetService::afficher,
+                this::applyProjets,
+                error -> showError("Chargement des projets impossible: " + error.getMessage()));
+        loader.load("stats", statisticsService::getStatistiques, this::updateProjetStats, null);
+    }
+
+    private void applyProjets(java.util.List<Projet> projets) {
         if (tableProjets != null) {
-            tableProjets.setItems(projets);
+            ListDiff.merge(tableProjets.getItems(), projets, Projet::getId, Projet::sameContent);
         }
         if (comboProjet != null) {
             ObservableList<String> labels = FXCollections.observableArrayList();
@@ -226,16 +257,18 @@ public class CarbonAuditController extends BaseController {
             }
             comboProjet.setItems(labels);
         }
-        updateProjetStats(projets);
         selectProjetIfSet();
     }
 
     private void refreshEvaluations() {
-        ObservableList<Evaluation> evaluations = FXCollections.observableArrayList(evaluationService.afficher());
-        if (tableAudits != null) {
-            tableAudits.setItems(evaluations);
-            tableAudits.refresh();
+        if (tableAudits == null) {
+            return;
         }
+        loader.load("evaluations", evaluationService::afficher,
+                result -> {
+                    ListDiff.merge(tableAudits.getItems(), result, Evaluation::getIdEvaluation, Evaluation::sameContent);
+                },
+                error -> showError("Chargement des evaluations impossible: " + error.getMessage()));
     }
 
     private void refreshCriteres() {
@@ -243,26 +276,26 @@ public class CarbonAuditController extends BaseController {
             return;
         }
         if (selectedEvaluationId == null) {
-            tableCriteres.setItems(FXCollections.observableArrayList());
+            loader.cancel("criteres");
+            tableCriteres.getItems().clear();
             updateCritereStats(0);
             return;
         }
-        ObservableList<CritereImpact> criteres = FXCollections.observableArrayList(
-                critereImpactService.afficherParEvaluation(selectedEvaluationId)
-        );
-        tableCriteres.setItems(criteres);
-        updateCritereStats(criteres.size());
+        int evaluationId = selectedEvaluationId;
+        loader.load("criteres", () -> critereImpactService.afficherParEvaluation(evaluationId),
+                result -> {
+                    ListDiff.merge(tableCriteres.getItems(), result, CritereImpact::getIdCritere, CritereImpact::sameContent);
+                    updateCritereStats(result.size());
+                },
+                error -> showError("Chargement des criteres impossible: " + error.getMessage()));
     }
 
-    private void updateProjetStats(ObservableList<Projet> projets) {
+    private void updateProjetStats(ProjetStatistics stats) {
         if (lblProjetsAudit == null || lblProjetsEvalues == null) {
             return;
         }
-        long pending = projets.stream().filter(p -> {
-            String s = p.getStatutEvaluation();
-            return s == null || s.isEmpty() || s.equalsIgnoreCase("En attente");
-        }).count();
-        long evaluated = projets.size() - pending;
+        long pending = stats.getNonEvalues();
+        long evaluated = stats.getEvalues();
         lblProjetsAudit.setText(String.valueOf(pending));
         lblProjetsEvalues.setText(String.valueOf(evaluated));
     }
@@ -291,10 +324,16 @@ public class CarbonAuditController extends BaseController {
         if (evaluation == null) {
             return;
         }
-        evaluationService.ajouter(evaluation);
-        refreshEvaluations();
-        refreshProjets();
-        clearEvaluationForm();
+        loader.load("ajoutEvaluation", () -> {
+                    evaluationService.ajouter(evaluation);
+                    return evaluation;
+                },
+                added -> {
+                    refreshEvaluations();
+                    refreshProjets();
+                    clearEvaluationForm();
+                },
+                error -> showError("Ajout de l'evaluation impossible: " + error.getMessage()));
     }
 
     @FXML
@@ -303,9 +342,17 @@ public class CarbonAuditController extends BaseController {
         if (evaluation == null) {
             return;
         }
-        evaluationService.modifier(evaluation);
-        refreshEvaluations();
-        refreshProjets();
+        loader.load("modifEvaluation-" + evaluation.getIdEvaluation(), () -> {
+                    Integer previousProjet = scoringService.projetOf(evaluation.getIdEvaluation());
+                    evaluationService.modifier(evaluation);
+                    // Moved to another projet: the one it left loses its criteria
+                    if (previousProjet != null && previousProjet != evaluation.getIdProjet()) {
+                        scoringService.rescoreProjet(previousProjet);
+                    }
+                    return evaluation;
+                },
+                updated -> rescore(updated.getIdEvaluation()),
+                error -> showError("Modification de l'evaluation impossible: " + error.getMessage()));
     }
 
     @FXML
@@ -315,12 +362,39 @@ public class CarbonAuditController extends BaseController {
             showError("Selectionnez une evaluation.");
             return;
         }
-        evaluationService.supprimer(id);
+        Evaluation selected = tableAudits != null ? tableAudits.getSelectionModel().getSelectedItem() : null;
+        Integer idProjet = selected != null && selected.getIdEvaluation() == id ? selected.getIdProjet() : null;
         selectedEvaluationId = null;
-        refreshEvaluations();
-        refreshProjets();
-        refreshCriteres();
-        clearEvaluationForm();
+        loader.load("supprEvaluation-" + id, () -> {
+                    evaluationService.supprimer(id);
+                    if (idProjet != null) {
+                        scoringService.rescoreProjet(idProjet);
+                    }
+                    return id;
+                },
+                deleted -> {
+                    refreshEvaluations();
+                    refreshProjets();
+                    refreshCriteres();
+                    clearEvaluationForm();
+                },
+                error -> showError("Suppression de l'evaluation impossible: " + error.getMessage()));
+    }
+
+    @FXML
+    void recalculerScores() {
+        if (loader.isLoading("rescoreAll")) {
+            return;
+        }
+        loader.load("rescoreAll", scoringService::rescoreAll,
+                count -> {
+                    if (count < 0) {
+                        showError("Recalcul des scores impossible.");
+                    }
+                    refreshEvaluations();
+                    refreshProjets();
+                },
+                error -> showError("Recalcul des scores impossible: " + error.getMessage()));
     }
 
     @FXML
@@ -341,9 +415,49 @@ public class CarbonAuditController extends BaseController {
                 commentaire,
                 selectedEvaluationId
         );
-        critereImpactService.ajouter(critere);
-        refreshCriteres();
-        clearCritereForm();
+        int evaluationId = selectedEvaluationId;
+        loader.load("ajoutCritere", () -> critereImpactService.ajouterMany(java.util.List.of(critere)),
+                ids -> {
+                    if (ids.isEmpty()) {
+                        showError("Ajout du critere impossible.");
+                        return;
+                    }
+                    appendCriteres(evaluationId, java.util.List.of(critere));
+                    clearCritereForm();
+                },
+                error -> showError("Ajout du critere impossible: " + error.getMessage()));
+    }
+
+    /**
+     * Bulk entry: criteria of the selected evaluation read from a text file, one per line as
+     * "nom;note;commentaire" (a comma works as separator too; a header line is skipped),
+     * all inserted in one transaction.
+     */
+    @FXML
+    void importerCriteres() {
+        if (selectedEvaluationId == null) {
+            showError("Selectionnez une evaluation.");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Importer des criteres");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv", "*.txt"),
+                new FileChooser.ExtensionFilter("Tous les fichiers", "*.*"));
+        File file = chooser.showOpenDialog(tableCriteres != null ? tableCriteres.getScene().getWindow() : null);
+        if (file == null) {
+            return;
+        }
+        int evaluationId = selectedEvaluationId;
+        loader.load("importCriteres", () -> {
+                    java.util.List<CritereImpact> criteres = readCriteres(file.toPath(), evaluationId);
+                    if (!criteres.isEmpty() && critereImpactService.ajouterMany(criteres).isEmpty()) {
+                        throw new IllegalStateException("insertion annulee");
+                    }
+                    return criteres;
+                },
+                criteres -> appendCriteres(evaluationId, criteres),
+                error -> showError("Import impossible: " + error.getMessage()));
     }
 
     @FXML
@@ -359,11 +473,22 @@ public class CarbonAuditController extends BaseController {
         if (nom == null || commentaire == null || note == null) {
             return;
         }
-        selected.setNom(nom);
-        selected.setNote(note);
-        selected.setCommentaireTechnique(commentaire);
-        critereImpactService.modifier(selected);
-        refreshCriteres();
+        CritereImpact updated = new CritereImpact(nom, note, commentaire, selected.getIdEvaluation());
+        updated.setIdCritere(selected.getIdCritere());
+        loader.load("modifCritere-" + selected.getIdCritere(), () -> critereImpactService.modifier(updated),
+                ok -> {
+                    if (!ok) {
+                        showError("Modification du critere impossible.");
+                        refreshCriteres();
+                        return;
+                    }
+                    int index = tableCriteres.getItems().indexOf(selected);
+                    if (index >= 0) {
+                        tableCriteres.getItems().set(index, updated);
+                    }
+                    rescore(updated.getIdEvaluation());
+                },
+                error -> showError("Modification du critere impossible: " + error.getMessage()));
     }
 
     @FXML
@@ -373,9 +498,76 @@ public class CarbonAuditController extends BaseController {
             showError("Selectionnez un critere.");
             return;
         }
-        critereImpactService.supprimer(selected.getIdCritere());
-        refreshCriteres();
-        clearCritereForm();
+        loader.load("supprCritere-" + selected.getIdCritere(), () -> critereImpactService.supprimer(selected.getIdCritere()),
+                ok -> {
+                    if (!ok) {
+                        showError("Suppression du critere impossible.");
+                        refreshCriteres();
+                        return;
+                    }
+                    tableCriteres.getItems().remove(selected);
+                    updateCritereStats(tableCriteres.getItems().size());
+                    clearCritereForm();
+                    rescore(selected.getIdEvaluation());
+                },
+                error -> showError("Suppression du critere impossible: " + error.getMessage()));
+    }
+
+    /**
+     * Add freshly inserted criteria to the table without re-querying it, unless another
+     * evaluation was selected meanwhile, then rescore their evaluation.
+     */
+    private void appendCriteres(int evaluationId, java.util.List<CritereImpact> criteres) {
+        if (criteres.isEmpty()) {
+            return;
+        }
+        if (tableCriteres != null && selectedEvaluationId != null && selectedEvaluationId == evaluationId
+                && !loader.isLoading("criteres")) {
+            tableCriteres.getItems().addAll(criteres);
+            updateCritereStats(tableCriteres.getItems().size());
+        }
+        rescore(evaluationId);
+    }
+
+    private java.util.List<CritereImpact> readCriteres(Path path, int evaluationId) {
+        java.util.List<CritereImpact> criteres = new java.util.ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] parts = line.split(line.indexOf(';') >= 0 ? ";" : ",", 3);
+                String note = parts.length > 1 ? parts[1].trim() : "";
+                if (number == 1 && !note.equals("0") && !note.equals("1")) {
+                    continue;   // header
+                }
+                String nom = parts[0].trim();
+                String commentaire = parts.length > 2 ? parts[2].trim() : "";
+                if (nom.length() < 10 || nom.length() > 50 || (!note.equals("0") && !note.equals("1"))
+                        || commentaire.isEmpty()) {
+                    throw new IllegalArgumentException("ligne " + number + " invalide (nom 10-50 caracteres, note 0 ou 1, commentaire)");
+                }
+                criteres.add(new CritereImpact(nom, Integer.parseInt(note), commentaire, evaluationId));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return criteres;
+    }
+
+    /**
+     * Recompute the scores of an evaluation and its projet in the background, then reload both tables.
+     */
+    private void rescore(int idEvaluation) {
+        loader.load("score-" + idEvaluation, () -> scoringService.rescoreEvaluation(idEvaluation),
+                score -> {
+                    refreshEvaluations();
+                    refreshProjets();
+                },
+                error -> showError("Calcul du score impossible: " + error.getMessage()));
     }
 
     private Evaluation readEvaluationFromForm(boolean requireId) {
@@ -527,13 +719,17 @@ public class CarbonAuditController extends BaseController {
             showError("Decision invalide. Utilisez accepte/approuve ou refuse/rejete.");
             return;
         }
-        boolean updated = projetService.updateStatut(evaluation.getIdProjet(), status);
-        if (!updated) {
-            showError("Mise a jour statut echouee.");
-            return;
-        }
-        refreshProjets();
-        refreshEvaluations();
+        int idProjet = evaluation.getIdProjet();
+        loader.load("statut-" + idProjet, () -> projetService.updateStatut(idProjet, status),
+                updated -> {
+                    if (!updated) {
+                        showError("Mise a jour statut echouee.");
+                        return;
+                    }
+                    refreshProjets();
+                    refreshEvaluations();
+                },
+                error -> showError("Mise a jour statut echouee: " + error.getMessage()));
     }
 
     private String mapDecisionToStatus(String decision) {
@@ -1,5 +1,6 @@
 package Controllers;
 
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -9,11 +10,21 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.Callback;
+import javafx.util.Duration;
+import Models.KeysetCursor;
 import Models.Projet;
+import Models.ProjetQuery;
+import Models.ProjetStatistics;
 import org.GreenLedger.MainFX;
+import Services.ProjetSearchIndex;
 import Services.ProjetService;
+import Services.StatisticsService;
+import Utils.FxLoader;
+import Utils.ListDiff;
+import Utils.TablePaging;
 
 
 import java.io.IOException;
@@ -65,8 +76,21 @@ public class ExpertProjetController extends BaseController {
     @FXML
     private Label lblEvaluated;
 
+    @FXML
+    private TextField txtSearch;
+
+    private static final int SEARCH_LIMIT = 500;
+    private static final int PAGE_SIZE = 100;
+    private static final String STATUT = "SUBMITTED";
+
     private final ObservableList<Projet> data = FXCollections.observableArrayList();
+    private KeysetCursor cursor;
+    private boolean hasMore;
+    private boolean searching;
+    private long version = -1;      // Database version of the loaded pages, for changesSince
     private final ProjetService projetService = new ProjetService();
+    private final StatisticsService statisticsService = StatisticsService.getInstance();
+    private final FxLoader loader = new FxLoader();
 
     @FXML
     public void initialize() {
@@ -112,6 +136,9 @@ public class ExpertProjetController extends BaseController {
         });
 
         tableProjets.setItems(data);
+        loader.bindTo(tableProjets);
+        TablePaging.onScrolledNearBottom(tableProjets, this::loadNextPage);
+        setupSearch();
         refreshTable();
     }
 
@@ -182,26 +209,106 @@ public class ExpertProjetController extends BaseController {
         };
     }
 
+    @Override
+    public void onShow() {
+        super.onShow();
+        refreshTable();
+    }
+
     private void refreshTable() {
-        java.util.List<Projet> projets = projetService.afficher();
-        java.util.List<Projet> submitted = new java.util.ArrayList<>();
-        for (Projet projet : projets) {
-            String statut = projet.getStatut();
-            if (statut != null && statut.equalsIgnoreCase("SUBMITTED")) {
-                submitted.add(projet);
+        loader.load("stats", statisticsService::getStatistiques, this::updateStats, null);
+        applySearch();
+    }
+
+    private ProjetQuery listQuery() {
+        return new ProjetQuery().statut(STATUT);
+    }
+
+    private void reloadPages() {
+        loader.cancel("projets");
+        loader.cancel("changes");
+        searching = false;
+        data.clear();
+        cursor = null;
+        hasMore = true;
+        version = -1;
+        loader.load("version", projetService::currentVersion, v -> version = v, null);
+        loadNextPage();
+    }
+
+    /**
+     * Fold the projets changed since the pages were loaded into the table, in place.
+     */
+    private void syncChanges() {
+        long since = version;
+        loader.load("changes", () -> projetService.changesSince(since, true),
+                changes -> {
+                    if (changes == null) {
+                        reloadPages();
+                        return;
+                    }
+                    if (!changes.isEmpty()) {
+                        ListDiff.merge(data, listQuery().apply(data, changes, hasMore), Projet::getId, Projet::sameContent);
+                    }
+                    version = changes.getVersion();
+                },
+                null);
+    }
+
+    private void loadNextPage() {
+        if (!hasMore || loader.isLoading("projets")) {
+            return;
+        }
+        ProjetQuery query = listQuery().after(cursor).limit(PAGE_SIZE);
+        loader.load("projets", () -> projetService.afficherPage(query),
+                page -> {
+                    data.addAll(page.getItems());
+                    cursor = page.getNextCursor();
+                    hasMore = page.hasMore();
+                },
+                null);
+    }
+
+    private void setupSearch() {
+        if (txtSearch == null) {
+            return;
+        }
+        // Search once typing pauses instead of on every keystroke
+        PauseTransition debounce = new PauseTransition(Duration.millis(150));
+        debounce.setOnFinished(e -> applySearch());
+        txtSearch.textProperty().addListener((obs, oldVal, newVal) -> debounce.playFromStart());
+    }
+
+    private void applySearch() {
+        String query = txtSearch == null ? "" : txtSearch.getText().trim();
+        if (query.isEmpty()) {
+            loader.cancel("search");
+            if (searching || data.isEmpty() || version < 0) {
+                reloadPages();
+            } else {
+                syncChanges();
             }
+            return;
         }
-        data.setAll(submitted);
-        updateStats();
+        // Search hits are shown in rank order on a single page
+        loader.cancel("projets");
+        loader.cancel("changes");
+        searching = true;
+        hasMore = false;
+        loader.load("search", () -> {
+                    java.util.List<Integer> ids = projetService.search(query, SEARCH_LIMIT);
+                    java.util.List<Projet> hits = projetService.afficherPage(
+                            listQuery().ids(ids).limit(Math.max(1, ids.size()))).getItems();
+                    return ProjetSearchIndex.inRankOrder(hits, ids);
+                },
+                hits -> ListDiff.merge(data, hits, Projet::getId, Projet::sameContent),
+                null);
     }
 
-    private void updateStats() {
-        long total = data.size();
-        long pending = data.stream().filter(p -> {
-            String s = p.getStatutEvaluation();
-            return s == null || s.isEmpty() || s.equalsIgnoreCase("En attente");
-        }).count();
-        long evaluated = total - pending;
+    private void updateStats(ProjetStatistics stats) {
+        long total = stats.getTotal(STATUT);
+        long pending = stats.getNonEvalues(STATUT);
+        long evaluated = stats.getEvalues(STATUT);
 
         lblTotal.setText(String.valueOf(total));
         lblPending.setText(String.valueOf(pending));
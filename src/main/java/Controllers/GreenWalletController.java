@@ -2,22 +2,44 @@ package Controllers;
 
 import Models.Wallet;
 import Models.OperationWallet;
+import Models.KeysetCursor;
+import Models.CreditAmount;
+import Models.CarbonCreditBatch;
+import Models.BatchSummary;
+import Models.PortfolioSummary;
+import Services.ExportService;
 import Services.WalletService;
+import Utils.AsyncExecutor;
+import Utils.FxLoader;
+import Utils.TablePaging;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.GridPane;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.stage.FileChooser;
 import org.GreenLedger.MainFX;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Controller for Green Wallet - Carbon Credit Management System.
@@ -26,12 +48,26 @@ public class GreenWalletController extends BaseController {
 
     // Services
     private WalletService walletService;
+    private final ExportService exportService = new ExportService();
     private Wallet currentWallet;
 
+    // Transaction history paging (keyset, fetched as the user scrolls)
+    private static final int TRANSACTIONS_PAGE_SIZE = 100;
+    private final ObservableList<OperationWallet> transactionItems = FXCollections.observableArrayList();
+    private KeysetCursor transactionsCursor;
+    private boolean transactionsHasMore;
+
+    // Background loads, cancelled when the user leaves the screen
+    private final FxLoader loader = new FxLoader();
+    // Request id of each credit submission not yet succeeded, and whether an operation is running
+    private final Map<String, String> submissionIds = new HashMap<>();
+    private final BooleanProperty creditOperationRunning = new SimpleBooleanProperty(false);
+
     // Sidebar Buttons
     @FXML private Button btnWalletOverview;
     @FXML private Button btnTransactions;
     @FXML private Button btnBatches;
+    @FXML private Button btnPortfolio;
     @FXML private Button btnIssueCredits;
     @FXML private Button btnRetireCredits;
     @FXML private Button btnCreateWallet;
@@ -55,7 +91,7 @@ public class GreenWalletController extends BaseController {
     @FXML private TableView<OperationWallet> tableTransactions;
     @FXML private TableColumn<OperationWallet, Integer> colTransactionId;
     @FXML private TableColumn<OperationWallet, String> colTransactionType;
-    @FXML private TableColumn<OperationWallet, Double> colTransactionAmount;
+    @FXML private TableColumn<OperationWallet, CreditAmount> colTransactionAmount;
     @FXML private TableColumn<OperationWallet, String> colTransactionDate;
     @FXML private TableColumn<OperationWallet, String> colTransactionReference;
 
@@ -75,8 +111,10 @@ public class GreenWalletController extends BaseController {
     public void initialize() {
         super.initialize();
         walletService = new WalletService();
+        loader.bindTo(tableTransactions);
         
         setupTableColumns();
+        setupTransactionPaging();
         setupWalletSelector();
         setupListeners();
         loadWallets();
@@ -122,6 +160,11 @@ public class GreenWalletController extends BaseController {
         });
     }
 
+    private void setupTransactionPaging() {
+        tableTransactions.setItems(transactionItems);
+        TablePaging.onScrolledNearBottom(tableTransactions, this::loadNextTransactionsPage);
+    }
+
     private void setupWalletSelector() {
         cmbWalletSelector.setConverter(new javafx.util.StringConverter<Wallet>() {
             @Override
@@ -148,6 +191,9 @@ public class GreenWalletController extends BaseController {
         btnWalletOverview.setOnAction(e -> showWalletOverview());
         btnTransactions.setOnAction(e -> showTransactions());
         btnBatches.setOnAction(e -> showBatches());
+        if (btnPortfolio != null) {
+            btnPortfolio.setOnAction(e -> showPortfolio());
+        }
         
         btnIssueCredits.setOnAction(e -> showQuickIssueDialog());
         btnRetireCredits.setOnAction(e -> showRetireCreditsDialog());
@@ -158,7 +204,13 @@ public class GreenWalletController extends BaseController {
         
         if (btnTransferCredits != null) {
             btnTransferCredits.setOnAction(e -> showTransferDialog());
+            btnTransferCredits.disableProperty().bind(creditOperationRunning);
         }
+        // No second credit operation while one is running
+        btnIssueCredits.disableProperty().bind(creditOperationRunning);
+        btnRetireCredits.disableProperty().bind(creditOperationRunning);
+        btnIssueCreditsMain.disableProperty().bind(creditOperationRunning);
+        btnRetireCreditsMain.disableProperty().bind(creditOperationRunning);
         if (btnEditWallet != null) {
             btnEditWallet.setOnAction(e -> showEditWalletDialog());
         }
@@ -177,30 +229,29 @@ public class GreenWalletController extends BaseController {
     // ==================== WALLET LOADING ====================
 
     private void loadWallets() {
-        try {
-            List<Wallet> wallets = walletService.getAllWallets();
-            ObservableList<Wallet> walletList = FXCollections.observableArrayList(wallets);
-            cmbWalletSelector.setItems(walletList);
-            
-            // Select first wallet if available
-            if (!wallets.isEmpty()) {
-                cmbWalletSelector.getSelectionModel().select(0);
-            }
-        } catch (Exception e) {
-            showError("Erreur lors du chargement des wallets", e.getMessage());
-        }
+        loader.load("wallets", walletService::getAllWallets,
+            wallets -> {
+                ObservableList<Wallet> walletList = FXCollections.observableArrayList(wallets);
+                cmbWalletSelector.setItems(walletList);
+
+                // Select first wallet if available
+                if (!wallets.isEmpty()) {
+                    cmbWalletSelector.getSelectionModel().select(0);
+                }
+            },
+            e -> showError("Erreur lors du chargement des wallets", e.getMessage()));
     }
 
     private void loadWallet(int walletId) {
-        try {
-            currentWallet = walletService.getWalletById(walletId);
-            if (currentWallet != null) {
-                updateWalletDisplay();
-                loadTransactions();
-            }
-        } catch (Exception e) {
-            showError("Erreur lors du chargement du wallet", e.getMessage());
-        }
+        loader.load("wallet", () -> walletService.getWalletById(walletId),
+            wallet -> {
+                currentWallet = wallet;
+                if (currentWallet != null) {
+                    updateWalletDisplay();
+                    loadTransactions();
+                }
+            },
+            e -> showError("Erreur lors du chargement du wallet", e.getMessage()));
     }
 
     private void updateWalletDisplay() {
@@ -228,19 +279,35 @@ public class GreenWalletController extends BaseController {
         lblAvailableCredits.setText("0.00 tCO₂");
         lblRetiredCredits.setText("0.00 tCO₂");
         lblTotalCredits.setText("0.00 tCO₂");
-        tableTransactions.setItems(FXCollections.observableArrayList());
+        transactionItems.clear();
+        transactionsCursor = null;
+        transactionsHasMore = false;
     }
 
     private void loadTransactions() {
         if (currentWallet == null) return;
-        
-        try {
-            List<OperationWallet> transactions = walletService.getWalletTransactions(currentWallet.getId());
-            ObservableList<OperationWallet> transactionList = FXCollections.observableArrayList(transactions);
-            tableTransactions.setItems(transactionList);
-        } catch (Exception e) {
-            showError("Erreur lors du chargement des transactions", e.getMessage());
-        }
+
+        // Drop any page still loading for the previously displayed wallet
+        loader.cancel("transactions");
+        transactionItems.clear();
+        transactionsCursor = null;
+        transactionsHasMore = true;
+        loadNextTransactionsPage();
+    }
+
+    private void loadNextTransactionsPage() {
+        if (currentWallet == null || !transactionsHasMore || loader.isLoading("transactions")) return;
+
+        int walletId = currentWallet.getId();
+        KeysetCursor cursor = transactionsCursor;
+        loader.load("transactions",
+            () -> walletService.getWalletTransactionsPage(walletId, cursor, TRANSACTIONS_PAGE_SIZE),
+            page -> {
+                transactionItems.addAll(page.getItems());
+                transactionsCursor = page.getNextCursor();
+                transactionsHasMore = page.hasMore();
+            },
+            e -> showError("Erreur lors du chargement des transactions", e.getMessage()));
     }
 
     // ==================== ACTIONS ====================
@@ -304,9 +371,9 @@ public class GreenWalletController extends BaseController {
                     wallet.setOwnerType(ownerType.getValue());
                     wallet.setOwnerId(Integer.parseInt(ownerId.getText()));
                     
-                    double credits = Double.parseDouble(initialCredits.getText());
-                    wallet.setAvailableCredits(Math.max(0, credits));
-                    wallet.setRetiredCredits(0.0);
+                    CreditAmount credits = CreditAmount.parse(initialCredits.getText());
+                    wallet.setAvailableCredits(credits.isNegative() ? CreditAmount.ZERO : credits);
+                    wallet.setRetiredCredits(CreditAmount.ZERO);
                     
                     return wallet;
                 } catch (NumberFormatException e) {
@@ -318,19 +385,16 @@ public class GreenWalletController extends BaseController {
         });
 
         Optional<Wallet> result = dialog.showAndWait();
-        result.ifPresent(wallet -> {
-            try {
-                int id = walletService.createWallet(wallet);
+        result.ifPresent(wallet -> loader.load("createWallet", () -> walletService.createWallet(wallet),
+            id -> {
                 if (id > 0) {
                     showInfo("Succès", "Wallet créé avec succès!");
                     loadWallets();
                 } else {
                     showError("Erreur", "Impossible de créer le wallet");
                 }
-            } catch (Exception e) {
-                showError("Erreur lors de la création", e.getMessage());
-            }
-        });
+            },
+            e -> showError("Erreur lors de la création", e.getMessage())));
     }
 
     private void showQuickIssueDialog() {
@@ -341,7 +405,7 @@ public class GreenWalletController extends BaseController {
 
         Dialog<String[]> dialog = new Dialog<>();
         dialog.setTitle("🌱 Émettre des Crédits Carbone");
-        dialog.setHeaderText(String.format("Wallet: %s\nDisponible: %.2f tCO₂", 
+        dialog.setHeaderText(String.format("Wallet: %s\nDisponible: %s tCO₂", 
             currentWallet.getName(), currentWallet.getAvailableCredits()));
 
         ButtonType issueButtonType = new ButtonType("✓ Émettre", ButtonBar.ButtonData.OK_DONE);
@@ -408,22 +472,58 @@ public class GreenWalletController extends BaseController {
         Optional<String[]> result = dialog.showAndWait();
         result.ifPresent(data -> {
             try {
-                double amt = Double.parseDouble(data[0]);
+                CreditAmount amt = CreditAmount.parse(data[0]);
                 String ref = data[1].isEmpty() ? "Émission de crédits carbone" : data[1];
-                
-                boolean success = walletService.quickIssueCredits(currentWallet.getId(), amt, ref);
-                if (success) {
-                    showInfo("✔ Succès", String.format("%.2f tCO₂ émis avec succès!", amt));
-                    refreshData();
-                } else {
-                    showError("Erreur", "Impossible d'émettre les crédits");
-                }
+                int walletId = currentWallet.getId();
+
+                submitCreditOperation(String.join("|", "QUICK_ISSUE", String.valueOf(walletId), amt.toString(), ref),
+                    requestId -> walletService.quickIssueCredits(requestId, walletId, amt, ref),
+                    () -> showInfo("✔ Succès", String.format("%s tCO₂ émis avec succès!", amt)),
+                    "Impossible d'émettre les crédits", "Erreur lors de l'émission");
             } catch (Exception e) {
                 showError("Erreur lors de l'émission", e.getMessage());
             }
         });
     }
 
+    /**
+     * Run a credit operation in the background; the credit buttons stay disabled until it completes.
+     * The request id belongs to the submission (operation and inputs), not to the dialog: submitting the
+     * same thing again after an error reuses it, so the service answers with the original result instead
+     * of moving credits twice. A rejected submission (insufficient credits) is not recorded and simply runs
+     * again under the same id. Ids are released once an operation succeeded, so submitting the same thing
+     * again afterwards is a new request.
+     */
+    private void submitCreditOperation(String submission, Function<String, Boolean> operation,
+                                       Runnable onSuccess, String failureMessage, String errorTitle) {
+        if (creditOperationRunning.get()) {
+            return;
+        }
+        String requestId = submissionIds.computeIfAbsent(submission, k -> UUID.randomUUID().toString());
+        Task<Boolean> task = new Task<>() {
+            @Override
+            protected Boolean call() {
+                return operation.apply(requestId);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            creditOperationRunning.set(false);
+            if (task.getValue()) {
+                submissionIds.clear();
+                onSuccess.run();
+                refreshData();
+            } else {
+                showError("Erreur", failureMessage);
+            }
+        });
+        task.setOnFailed(e -> {
+            creditOperationRunning.set(false);
+            showError(errorTitle, task.getException() != null ? task.getException().getMessage() : "");
+        });
+        creditOperationRunning.set(true);
+        AsyncExecutor.getInstance().run(task);
+    }
+
     private void showEditWalletDialog() {
         if (currentWallet == null) {
             showWarning("Aucun wallet sélectionné", "Veuillez sélectionner un wallet");
@@ -452,7 +552,7 @@ public class GreenWalletController extends BaseController {
         Label walletNumberLabel = new Label("#" + currentWallet.getWalletNumber());
         walletNumberLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14;");
         
-        Label creditsLabel = new Label(String.format("%.2f tCO₂ disponibles", currentWallet.getAvailableCredits()));
+        Label creditsLabel = new Label(String.format("%s tCO₂ disponibles", currentWallet.getAvailableCredits()));
         creditsLabel.setStyle("-fx-text-fill: #2B6A4A;");
 
         grid.add(new Label("🔢 Numéro Wallet:"), 0, 0);
@@ -478,19 +578,16 @@ public class GreenWalletController extends BaseController {
         });
 
         Optional<Wallet> result = dialog.showAndWait();
-        result.ifPresent(wallet -> {
-            try {
-                boolean success = walletService.updateWallet(wallet);
+        result.ifPresent(wallet -> loader.load("updateWallet", () -> walletService.updateWallet(wallet),
+            success -> {
                 if (success) {
                     showInfo("✔ Succès", "Wallet modifié avec succès!");
                     refreshData();
                 } else {
                     showError("Erreur", "Impossible de modifier le wallet");
                 }
-            } catch (Exception e) {
-                showError("Erreur lors de la modification", e.getMessage());
-            }
-        });
+            },
+            e -> showError("Erreur lors de la modification", e.getMessage())));
     }
 
     private void showTransferDialog() {
@@ -499,14 +596,14 @@ public class GreenWalletController extends BaseController {
             return;
         }
 
-        if (currentWallet.getAvailableCredits() <= 0) {
+        if (!currentWallet.getAvailableCredits().isPositive()) {
             showWarning("🚫 Insufficient Funds", "Ce wallet n'a pas de crédits disponibles pour le transfert");
             return;
         }
 
         Dialog<String[]> dialog = new Dialog<>();
         dialog.setTitle("🔄 Transférer des Crédits");
-        dialog.setHeaderText(String.format("Source: %s\nDisponible: %.2f tCO₂", 
+        dialog.setHeaderText(String.format("Source: %s\nDisponible: %s tCO₂", 
             currentWallet.getName(), currentWallet.getAvailableCredits()));
 
         ButtonType transferButtonType = new ButtonType("➡️ Transférer", ButtonBar.ButtonData.OK_DONE);
@@ -518,7 +615,8 @@ public class GreenWalletController extends BaseController {
         grid.setPadding(new Insets(20));
 
         ComboBox<Wallet> destinationWallet = new ComboBox<>();
-        List<Wallet> allWallets = walletService.getAllWallets();
+        // Wallets already loaded in the selector: no query on the FX thread
+        List<Wallet> allWallets = new ArrayList<>(cmbWalletSelector.getItems());
         allWallets.removeIf(w -> w.getId() == currentWallet.getId());
         destinationWallet.setItems(FXCollections.observableArrayList(allWallets));
         destinationWallet.setConverter(new javafx.util.StringConverter<Wallet>() {
@@ -541,8 +639,8 @@ public class GreenWalletController extends BaseController {
             String val = quickAmounts.getValue();
             if (!val.equals("Personnalisé")) {
                 double percentage = Double.parseDouble(val.replace("%", "")) / 100.0;
-                double amt = currentWallet.getAvailableCredits() * percentage;
-                amount.setText(String.format("%.2f", amt));
+                CreditAmount amt = currentWallet.getAvailableCredits().multiply(percentage);
+                amount.setText(amt.toString());
             }
         });
         
@@ -577,7 +675,7 @@ public class GreenWalletController extends BaseController {
         result.ifPresent(data -> {
             try {
                 int destId = Integer.parseInt(data[0]);
-                double amt = Double.parseDouble(data[1]);
+                CreditAmount amt = CreditAmount.parse(data[1]);
                 String ref = data[2];
                 
                 if (ref.trim().isEmpty()) {
@@ -585,13 +683,11 @@ public class GreenWalletController extends BaseController {
                     return;
                 }
                 
-                boolean success = walletService.transferCredits(currentWallet.getId(), destId, amt, ref);
-                if (success) {
-                    showInfo("✔ Transfert Réussi", String.format("%.2f tCO₂ transférés avec succès!", amt));
-                    refreshData();
-                } else {
-                    showError("Erreur", "Impossible de transférer les crédits");
-                }
+                int walletId = currentWallet.getId();
+                submitCreditOperation(String.join("|", "TRANSFER", String.valueOf(walletId), String.valueOf(destId), amt.toString(), ref),
+                    requestId -> walletService.transferCredits(requestId, walletId, destId, amt, ref),
+                    () -> showInfo("✔ Transfert Réussi", String.format("%s tCO₂ transférés avec succès!", amt)),
+                    "Impossible de transférer les crédits", "Erreur lors du transfert");
             } catch (Exception e) {
                 showError("Erreur lors du transfert", e.getMessage());
             }
@@ -604,7 +700,7 @@ public class GreenWalletController extends BaseController {
             return;
         }
 
-        Dialog<double[]> dialog = new Dialog<>();
+        Dialog<String[]> dialog = new Dialog<>();
         dialog.setTitle("Émettre des Crédits Carbone");
         dialog.setHeaderText("Émission de crédits pour: Wallet #" + currentWallet.getWalletNumber());
 
@@ -638,9 +734,9 @@ public class GreenWalletController extends BaseController {
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == issueButtonType) {
                 try {
-                    int projId = Integer.parseInt(projectId.getText());
-                    double amt = Double.parseDouble(amount.getText());
-                    return new double[]{projId, amt};
+                    Integer.parseInt(projectId.getText());
+                    CreditAmount.parse(amount.getText());
+                    return new String[]{projectId.getText(), amount.getText()};
                 } catch (NumberFormatException e) {
                     return null;
                 }
@@ -648,20 +744,18 @@ public class GreenWalletController extends BaseController {
             return null;
         });
 
-        Optional<double[]> result = dialog.showAndWait();
+        Optional<String[]> result = dialog.showAndWait();
         result.ifPresent(data -> {
             try {
-                int projId = (int) data[0];
-                double amt = data[1];
+                int projId = Integer.parseInt(data[0]);
+                CreditAmount amt = CreditAmount.parse(data[1]);
                 String ref = reference.getText();
                 
-                boolean success = walletService.issueCredits(currentWallet.getId(), projId, amt, ref);
-                if (success) {
-                    showInfo("Succès", amt + " tCO₂ émis avec succès!");
-                    refreshData();
-                } else {
-                    showError("Erreur", "Impossible d'émettre les crédits");
-                }
+                int walletId = currentWallet.getId();
+                submitCreditOperation(String.join("|", "ISSUE", String.valueOf(walletId), String.valueOf(projId), amt.toString(), ref),
+                    requestId -> walletService.issueCredits(requestId, walletId, projId, amt, ref),
+                    () -> showInfo("Succès", amt + " tCO₂ émis avec succès!"),
+                    "Impossible d'émettre les crédits", "Erreur lors de l'émission");
             } catch (Exception e) {
                 showError("Erreur lors de l'émission", e.getMessage());
             }
@@ -674,14 +768,14 @@ public class GreenWalletController extends BaseController {
             return;
         }
 
-        if (currentWallet.getAvailableCredits() <= 0) {
+        if (!currentWallet.getAvailableCredits().isPositive()) {
             showWarning("🚫 Aucun Crédit Disponible", "Ce wallet n'a pas de crédits disponibles à retirer");
             return;
         }
 
         Dialog<String[]> dialog = new Dialog<>();
         dialog.setTitle("♻️ Retirer des Crédits Carbone");
-        dialog.setHeaderText(String.format("Wallet: %s\nDisponible: %.2f tCO₂", 
+        dialog.setHeaderText(String.format("Wallet: %s\nDisponible: %s tCO₂", 
             currentWallet.getName(), currentWallet.getAvailableCredits()));
 
         ButtonType retireButtonType = new ButtonType("🔒 Retirer", ButtonBar.ButtonData.OK_DONE);
@@ -703,8 +797,8 @@ public class GreenWalletController extends BaseController {
             String val = quickAmounts.getValue();
             if (!val.equals("Personnalisé")) {
                 double percentage = Double.parseDouble(val.replace("%", "")) / 100.0;
-                double amt = currentWallet.getAvailableCredits() * percentage;
-                amount.setText(String.format("%.2f", amt));
+                CreditAmount amt = currentWallet.getAvailableCredits().multiply(percentage);
+                amount.setText(amt.toString());
             }
         });
         
@@ -752,7 +846,7 @@ public class GreenWalletController extends BaseController {
         Optional<String[]> result = dialog.showAndWait();
         result.ifPresent(data -> {
             try {
-                double amt = Double.parseDouble(data[0]);
+                CreditAmount amt = CreditAmount.parse(data[0]);
                 String ref = data[1];
                 
                 if (ref.trim().isEmpty()) {
@@ -760,13 +854,11 @@ public class GreenWalletController extends BaseController {
                     return;
                 }
                 
-                boolean success = walletService.retireCredits(currentWallet.getId(), amt, ref);
-                if (success) {
-                    showInfo("✅ Retirement Effectué", String.format("%.2f tCO₂ retirés avec succès!\n\nCes crédits sont maintenant définitivement retirés du marché.", amt));
-                    refreshData();
-                } else {
-                    showError("Erreur", "Impossible de retirer les crédits");
-                }
+                int walletId = currentWallet.getId();
+                submitCreditOperation(String.join("|", "RETIRE", String.valueOf(walletId), amt.toString(), ref),
+                    requestId -> walletService.retireCredits(requestId, walletId, amt, ref),
+                    () -> showInfo("✅ Retirement Effectué", String.format("%s tCO₂ retirés avec succès!\n\nCes crédits sont maintenant définitivement retirés du marché.", amt)),
+                    "Impossible de retirer les crédits", "Erreur lors du retirement");
             } catch (Exception e) {
                 showError("Erreur lors du retirement", e.getMessage());
             }
@@ -780,14 +872,14 @@ public class GreenWalletController extends BaseController {
         }
 
         // Safety check: Can only delete wallets with zero balance
-        if (currentWallet.getTotalCredits() > 0) {
+        if (currentWallet.getTotalCredits().isPositive()) {
             showWarning(
                 "🚫 Suppression Impossible", 
                 String.format(
                     "Ce wallet contient encore des crédits:\n\n" +
-                    "💰 Disponibles: %.2f tCO₂\n" +
-                    "❌ Retirés: %.2f tCO₂\n" +
-                    "📊 Total: %.2f tCO₂\n\n" +
+                    "💰 Disponibles: %s tCO₂\n" +
+                    "❌ Retirés: %s tCO₂\n" +
+                    "📊 Total: %s tCO₂\n\n" +
                     "Vous devez d'abord transférer ou retirer tous les crédits disponibles.",
                     currentWallet.getAvailableCredits(),
                     currentWallet.getRetiredCredits(),
@@ -821,19 +913,21 @@ public class GreenWalletController extends BaseController {
 
         Optional<ButtonType> result = confirmation.showAndWait();
         if (result.isPresent() && result.get() == btnDelete) {
-            try {
-                boolean success = walletService.deleteWallet(currentWallet.getId());
-                if (success) {
-                    showInfo("✅ Wallet Supprimé", "Le wallet a été supprimé avec succès!");
-                    currentWallet = null;
-                    loadWallets();
-                    clearWalletDisplay();
-                } else {
-                    showError("Erreur", "Impossible de supprimer le wallet");
-                }
-            } catch (Exception e) {
-                showError("Erreur lors de la suppression", e.getMessage());
-            }
+            int walletId = currentWallet.getId();
+            loader.load("deleteWallet", () -> walletService.deleteWallet(walletId),
+                success -> {
+                    if (success) {
+                        showInfo("✅ Wallet Supprimé", "Le wallet a été supprimé avec succès!");
+                        if (currentWallet != null && currentWallet.getId() == walletId) {
+                            currentWallet = null;
+                            clearWalletDisplay();
+                        }
+                        loadWallets();
+                    } else {
+                        showError("Erreur", "Impossible de supprimer le wallet");
+                    }
+                },
+                e -> showError("Erreur lors de la suppression", e.getMessage()));
         }
     }
 
@@ -848,11 +942,198 @@ public class GreenWalletController extends BaseController {
     }
 
     private void showBatches() {
-        showInfo("Bientôt disponible", "La vue des batches sera implémentée prochainement");
+        if (currentWallet == null) {
+            showWarning("Aucun wallet sélectionné", "Veuillez sélectionner un wallet");
+            return;
+        }
+        new BatchExplorer(currentWallet).show();
+    }
+
+    /**
+     * Platform-wide figures per owner type and project, read from the materialized portfolio summary.
+     */
+    private void showPortfolio() {
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("🌍 Portefeuille Global");
+        dialog.setHeaderText("Crédits émis, retirés et transférés (tous wallets)");
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.setResizable(true);
+
+        ComboBox<String> grouping = new ComboBox<>();
+        grouping.getItems().addAll("Par type et projet", "Par type de propriétaire");
+        grouping.setValue("Par type de propriétaire");
+
+        TableView<PortfolioSummary> table = new TableView<>();
+        TableColumn<PortfolioSummary, String> colOwner = new TableColumn<>("Type");
+        colOwner.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                c.getValue().getOwnerType() != null ? c.getValue().getOwnerType() : "Total"));
+        TableColumn<PortfolioSummary, String> colProject = new TableColumn<>("Projet");
+        colProject.setCellValueFactory(c -> {
+            Integer projectId = c.getValue().getProjectId();
+            return new javafx.beans.property.SimpleStringProperty(
+                    projectId == null ? "Tous" : projectId == 0 ? "—" : "#" + projectId);
+        });
+        TableColumn<PortfolioSummary, CreditAmount> colIssued = new TableColumn<>("Émis (tCO₂)");
+        colIssued.setCellValueFactory(new PropertyValueFactory<>("issued"));
+        TableColumn<PortfolioSummary, CreditAmount> colRetired = new TableColumn<>("Retirés (tCO₂)");
+        colRetired.setCellValueFactory(new PropertyValueFactory<>("retired"));
+        TableColumn<PortfolioSummary, CreditAmount> colTransferred = new TableColumn<>("Transférés (tCO₂)");
+        colTransferred.setCellValueFactory(new PropertyValueFactory<>("transferred"));
+        TableColumn<PortfolioSummary, Long> colMovements = new TableColumn<>("Opérations");
+        colMovements.setCellValueFactory(new PropertyValueFactory<>("movements"));
+        table.getColumns().addAll(List.of(colOwner, colProject, colIssued, colRetired, colTransferred, colMovements));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+        table.setPrefSize(720, 320);
+
+        List<PortfolioSummary> loaded = new java.util.ArrayList<>();
+        Runnable apply = () -> {
+            boolean byOwner = "Par type de propriétaire".equals(grouping.getValue());
+            Map<String, PortfolioSummary> groups = new LinkedHashMap<>();
+            PortfolioSummary total = new PortfolioSummary(null, null);
+            for (PortfolioSummary row : loaded) {
+                total.add(row);
+                if (byOwner) {
+                    groups.computeIfAbsent(row.getOwnerType(), k -> new PortfolioSummary(k, null)).add(row);
+                } else {
+                    groups.put(row.getOwnerType() + "/" + row.getProjectId(), row);
+                }
+            }
+            ObservableList<PortfolioSummary> items = FXCollections.observableArrayList(groups.values());
+            items.add(total);
+            table.setItems(items);
+        };
+        grouping.setOnAction(e -> apply.run());
+
+        HBox groupingBox = new HBox(10, new Label("Regroupement:"), grouping);
+        groupingBox.setAlignment(Pos.CENTER_LEFT);
+        VBox content = new VBox(10, groupingBox, table);
+        content.setPadding(new Insets(15));
+        dialog.getDialogPane().setContent(content);
+        dialog.setOnHidden(e -> loader.cancel("portfolio"));
+
+        loader.load("portfolio", walletService::getPortfolioSummary,
+            rows -> {
+                loaded.addAll(rows);
+                apply.run();
+            },
+            e -> showError("Erreur lors du chargement du portefeuille", e.getMessage()));
+        dialog.show();
     }
 
     private void exportData() {
-        showInfo("Bientôt disponible", "La fonction d'export sera implémentée prochainement");
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("📤 Exporter les Données");
+        dialog.setHeaderText("Export en flux (CSV ou JSON ligne par ligne)");
+
+        ButtonType exportButtonType = new ButtonType("✓ Exporter", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(exportButtonType, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(12);
+        grid.setVgap(12);
+        grid.setPadding(new Insets(20));
+
+        ComboBox<ExportService.Dataset> dataset = new ComboBox<>();
+        dataset.getItems().addAll(ExportService.Dataset.values());
+        dataset.setValue(ExportService.Dataset.TRANSACTIONS);
+
+        ComboBox<ExportService.Format> format = new ComboBox<>();
+        format.getItems().addAll(ExportService.Format.values());
+        format.setValue(ExportService.Format.CSV);
+
+        CheckBox gzip = new CheckBox("Compresser (gzip)");
+        CheckBox currentOnly = new CheckBox("Wallet sélectionné uniquement");
+        currentOnly.setSelected(currentWallet != null);
+        currentOnly.setDisable(currentWallet == null);
+
+        grid.add(new Label("Données:"), 0, 0);
+        grid.add(dataset, 1, 0);
+        grid.add(new Label("Format:"), 0, 1);
+        grid.add(format, 1, 1);
+        grid.add(gzip, 1, 2);
+        grid.add(currentOnly, 1, 3);
+
+        dialog.getDialogPane().setContent(grid);
+
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (result.isEmpty() || result.get() != exportButtonType) {
+            return;
+        }
+
+        String extension = (format.getValue() == ExportService.Format.CSV ? ".csv" : ".ndjson") + (gzip.isSelected() ? ".gz" : "");
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Enregistrer l'export");
+        chooser.setInitialFileName(dataset.getValue().getTable() + extension);
+        File file = chooser.showSaveDialog(btnExport.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Integer walletId = currentOnly.isSelected() && currentWallet != null ? currentWallet.getId() : null;
+        startExport(dataset.getValue(), walletId, file.toPath(), format.getValue(), gzip.isSelected());
+    }
+
+    private void startExport(ExportService.Dataset dataset, Integer walletId, Path target,
+                             ExportService.Format format, boolean gzip) {
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                updateMessage("Comptage des lignes...");
+                long total = exportService.count(dataset, walletId);
+                updateMessage("Export en cours...");
+                return exportService.export(dataset, walletId, target, format, gzip, rows -> {
+                    if (total > 0) {
+                        updateProgress(rows, total);
+                    }
+                    updateMessage(rows + " lignes exportées");
+                }, this::isCancelled);
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(320);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label status = new Label();
+        status.textProperty().bind(task.messageProperty());
+
+        Dialog<ButtonType> progressDialog = new Dialog<>();
+        progressDialog.setTitle("📤 Export en cours");
+        progressDialog.setHeaderText("Export vers " + target.getFileName());
+        progressDialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        VBox box = new VBox(10, progressBar, status);
+        box.setPadding(new Insets(20));
+        progressDialog.getDialogPane().setContent(box);
+        progressDialog.setOnHidden(e -> {
+            if (task.isRunning()) {
+                task.cancel();
+            }
+        });
+
+        task.setOnSucceeded(e -> {
+            progressDialog.close();
+            if (task.isCancelled()) {
+                return;
+            }
+            showInfo("✔ Export Terminé", task.getValue() + " lignes exportées vers:\n" + target);
+        });
+        task.setOnFailed(e -> {
+            progressDialog.close();
+            showError("Erreur lors de l'export", task.getException() != null ? task.getException().getMessage() : "");
+        });
+        task.setOnCancelled(e -> progressDialog.close());
+
+        progressDialog.show();
+        AsyncExecutor.getInstance().run(task);
+    }
+
+    @Override
+    public void onShow() {
+        super.onShow();
+        if (currentWallet != null) {
+            refreshData();
+        } else {
+            loadWallets();
+        }
     }
 
     private void refreshData() {
@@ -869,10 +1150,136 @@ public class GreenWalletController extends BaseController {
         }
     }
 
+    // ==================== BATCH EXPLORER ====================
+
+    /**
+     * Dialog listing a wallet's batches page by page, with per status / per project aggregates.
+     * Aggregates come from one GROUP BY (status, project); the other groupings are summed in memory.
+     */
+    private class BatchExplorer {
+        private static final int PAGE_SIZE = 200;
+
+        private final Wallet wallet;
+        private final FxLoader explorerLoader = new FxLoader();
+        private final ObservableList<CarbonCreditBatch> batchItems = FXCollections.observableArrayList();
+        private final TableView<BatchSummary> summaryTable = new TableView<>();
+        private final TableView<CarbonCreditBatch> batchTable = new TableView<>(batchItems);
+        private final ComboBox<String> grouping = new ComboBox<>();
+        private final Label lblLoaded = new Label();
+        private List<BatchSummary> summaryRows = List.of();
+        private KeysetCursor cursor;
+        private boolean hasMore = true;
+
+        BatchExplorer(Wallet wallet) {
+            this.wallet = wallet;
+        }
+
+        void show() {
+            Dialog<Void> dialog = new Dialog<>();
+            dialog.setTitle("📦 Batches de Crédits");
+            dialog.setHeaderText("Wallet #" + wallet.getWalletNumber() + " - " +
+                    (wallet.getName() != null ? wallet.getName() : "Unnamed Wallet"));
+            dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+            dialog.setResizable(true);
+
+            grouping.getItems().addAll("Par statut et projet", "Par statut", "Par projet");
+            grouping.setValue("Par statut");
+            grouping.setOnAction(e -> applySummary());
+
+            TableColumn<BatchSummary, String> colStatus = new TableColumn<>("Statut");
+            colStatus.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                    c.getValue().getStatus() != null ? c.getValue().getStatus() : "Tous"));
+            TableColumn<BatchSummary, String> colProject = new TableColumn<>("Projet");
+            colProject.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                    c.getValue().getProjectId() != null ? "#" + c.getValue().getProjectId() : "Tous"));
+            TableColumn<BatchSummary, Long> colCount = new TableColumn<>("Batches");
+            colCount.setCellValueFactory(new PropertyValueFactory<>("batchCount"));
+            TableColumn<BatchSummary, CreditAmount> colTotal = new TableColumn<>("Total (tCO₂)");
+            colTotal.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+            TableColumn<BatchSummary, CreditAmount> colRemaining = new TableColumn<>("Restant (tCO₂)");
+            colRemaining.setCellValueFactory(new PropertyValueFactory<>("remainingAmount"));
+            summaryTable.getColumns().addAll(List.of(colStatus, colProject, colCount, colTotal, colRemaining));
+            summaryTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+            summaryTable.setPrefHeight(170);
+
+            TableColumn<CarbonCreditBatch, Integer> colId = new TableColumn<>("ID");
+            colId.setCellValueFactory(new PropertyValueFactory<>("id"));
+            TableColumn<CarbonCreditBatch, Integer> colBatchProject = new TableColumn<>("Projet");
+            colBatchProject.setCellValueFactory(new PropertyValueFactory<>("projectId"));
+            TableColumn<CarbonCreditBatch, CreditAmount> colBatchTotal = new TableColumn<>("Total (tCO₂)");
+            colBatchTotal.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+            TableColumn<CarbonCreditBatch, CreditAmount> colBatchRemaining = new TableColumn<>("Restant (tCO₂)");
+            colBatchRemaining.setCellValueFactory(new PropertyValueFactory<>("remainingAmount"));
+            TableColumn<CarbonCreditBatch, String> colBatchStatus = new TableColumn<>("Statut");
+            colBatchStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
+            TableColumn<CarbonCreditBatch, String> colIssued = new TableColumn<>("Émis le");
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+            colIssued.setCellValueFactory(c -> new javafx.beans.property.SimpleStringProperty(
+                    c.getValue().getIssuedAt() != null ? c.getValue().getIssuedAt().format(formatter) : "—"));
+            batchTable.getColumns().addAll(List.of(colId, colBatchProject, colBatchTotal, colBatchRemaining, colBatchStatus, colIssued));
+            batchTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
+            // Fixed row height keeps the virtualized flow cheap with tens of thousands of rows
+            batchTable.setFixedCellSize(28);
+            batchTable.setPrefHeight(360);
+            TablePaging.onScrolledNearBottom(batchTable, this::loadNextPage);
+
+            HBox groupingBox = new HBox(10, new Label("Regroupement:"), grouping);
+            groupingBox.setAlignment(Pos.CENTER_LEFT);
+            VBox content = new VBox(10, groupingBox, summaryTable, new Separator(), lblLoaded, batchTable);
+            content.setPadding(new Insets(15));
+            content.setPrefWidth(760);
+            dialog.getDialogPane().setContent(content);
+            dialog.setOnHidden(e -> explorerLoader.cancelAll());
+
+            explorerLoader.load("summary", () -> walletService.getWalletBatchSummary(wallet.getId()),
+                rows -> {
+                    summaryRows = rows;
+                    applySummary();
+                },
+                e -> showError("Erreur lors du chargement des agrégats", e.getMessage()));
+            loadNextPage();
+
+            dialog.show();
+        }
+
+        private void loadNextPage() {
+            if (!hasMore || explorerLoader.isLoading("page")) return;
+
+            KeysetCursor after = cursor;
+            explorerLoader.load("page", () -> walletService.getWalletBatchesPage(wallet.getId(), after, PAGE_SIZE),
+                page -> {
+                    batchItems.addAll(page.getItems());
+                    cursor = page.getNextCursor();
+                    hasMore = page.hasMore();
+                    lblLoaded.setText(batchItems.size() + " batches chargés" + (hasMore ? " (défiler pour la suite)" : ""));
+                },
+                e -> showError("Erreur lors du chargement des batches", e.getMessage()));
+        }
+
+        private void applySummary() {
+            String mode = grouping.getValue();
+            Map<String, BatchSummary> groups = new LinkedHashMap<>();
+            BatchSummary grandTotal = new BatchSummary(null, null);
+            for (BatchSummary row : summaryRows) {
+                grandTotal.add(row);
+                if ("Par statut".equals(mode)) {
+                    groups.computeIfAbsent(row.getStatus(), k -> new BatchSummary(k, null)).add(row);
+                } else if ("Par projet".equals(mode)) {
+                    groups.computeIfAbsent(String.valueOf(row.getProjectId()), k -> new BatchSummary(null, row.getProjectId())).add(row);
+                } else {
+                    groups.put(row.getStatus() + "/" + row.getProjectId(), row);
+                }
+            }
+            ObservableList<BatchSummary> items = FXCollections.observableArrayList(groups.values());
+            items.add(grandTotal);
+            summaryTable.setItems(items);
+        }
+    }
+
     // ==================== UTILITY METHODS ====================
 
-    private String formatCredits(double credits) {
-        return String.format("%.2f tCO₂", credits);
+    private String formatCredits(CreditAmount credits) {
+        return credits + " tCO₂";
     }
 
     private void showInfo(String title, String content) {
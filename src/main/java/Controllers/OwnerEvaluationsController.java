@@ -2,6 +2,8 @@ package Controllers;
 
 import Models.Evaluation;
 import Services.EvaluationService;
+import Utils.FxLoader;
+import Utils.Refreshable;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -15,7 +17,7 @@ import org.GreenLedger.MainFX;
 import java.io.IOException;
 import java.sql.Timestamp;
 
-public class OwnerEvaluationsController {
+public class OwnerEvaluationsController implements Refreshable {
 
     private static Integer currentEntrepriseId;
 
@@ -34,6 +36,7 @@ public class OwnerEvaluationsController {
     @FXML private TableColumn<Evaluation, String> colObservations;
 
     private final EvaluationService evaluationService = new EvaluationService();
+    private final FxLoader loader = new FxLoader();
 
     @FXML
     public void initialize() {
@@ -42,6 +45,7 @@ public class OwnerEvaluationsController {
         colProjet.setCellValueFactory(new PropertyValueFactory<>("titreProjet"));
         colScore.setCellValueFactory(new PropertyValueFactory<>("scoreGlobal"));
         colObservations.setCellValueFactory(new PropertyValueFactory<>("observations"));
+        loader.bindTo(tableEvaluations);
 
         refresh();
     }
@@ -60,6 +64,11 @@ public class OwnerEvaluationsController {
         refresh();
     }
 
+    @Override
+    public void onShow() {
+        refresh();
+    }
+
     private void refresh() {
         if (currentEntrepriseId == null) {
             lblEntreprise.setText("Entreprise: non definie");
@@ -69,11 +78,14 @@ public class OwnerEvaluationsController {
         }
 
         lblEntreprise.setText("Entreprise ID: " + currentEntrepriseId);
-        ObservableList<Evaluation> items = FXCollections.observableArrayList(
-                evaluationService.afficherParEntreprise(currentEntrepriseId)
-        );
-        tableEvaluations.setItems(items);
-        lblTotal.setText(String.valueOf(items.size()));
+        int entrepriseId = currentEntrepriseId;
+        loader.load("evaluations", () -> evaluationService.afficherParEntreprise(entrepriseId),
+                evaluations -> {
+                    ObservableList<Evaluation> items = FXCollections.observableArrayList(evaluations);
+                    tableEvaluations.setItems(items);
+                    lblTotal.setText(String.valueOf(items.size()));
+                },
+                error -> showError("Chargement impossible: " + error.getMessage()));
     }
 
     private void showError(String message) {
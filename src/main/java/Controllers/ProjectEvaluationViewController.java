@@ -2,6 +2,8 @@ package Controllers;
 
 import Models.Evaluation;
 import Services.EvaluationService;
+import Utils.FxLoader;
+import Utils.Refreshable;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -15,7 +17,7 @@ import org.GreenLedger.MainFX;
 import java.io.IOException;
 import java.sql.Timestamp;
 
-public class ProjectEvaluationViewController {
+public class ProjectEvaluationViewController implements Refreshable {
 
     private static Integer currentProjetId;
     private static String currentProjetTitre;
@@ -40,7 +42,7 @@ public class ProjectEvaluationViewController {
     @FXML private TableColumn<Models.CritereImpact, String> colCritereCommentaire;
 
     private final EvaluationService evaluationService = new EvaluationService();
-    private final Services.CritereImpactService critereImpactService = new Services.CritereImpactService();
+    private final FxLoader loader = new FxLoader();
 
     @FXML
     public void initialize() {
@@ -53,6 +55,7 @@ public class ProjectEvaluationViewController {
         colCritereNote.setCellValueFactory(new PropertyValueFactory<>("note"));
         colCritereCommentaire.setCellValueFactory(new PropertyValueFactory<>("commentaireTechnique"));
 
+        loader.bindTo(tableEvaluations);
         if (tableEvaluations != null) {
             tableEvaluations.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, selected) -> {
                 loadCriteria(selected);
@@ -76,6 +79,11 @@ public class ProjectEvaluationViewController {
         refresh();
     }
 
+    @Override
+    public void onShow() {
+        refresh();
+    }
+
     private void refresh() {
         if (currentProjetId == null) {
             lblProjet.setText("Projet: non defini");
@@ -89,16 +97,20 @@ public class ProjectEvaluationViewController {
 
         String title = currentProjetTitre == null ? "" : " - " + currentProjetTitre;
         lblProjet.setText("Projet ID: " + currentProjetId + title);
-        ObservableList<Evaluation> items = FXCollections.observableArrayList(
-                evaluationService.afficherParProjet(currentProjetId)
-        );
-        tableEvaluations.setItems(items);
-        lblTotal.setText(String.valueOf(items.size()));
-        if (!items.isEmpty()) {
-            tableEvaluations.getSelectionModel().selectFirst();
-        } else {
-            loadCriteria(null);
-        }
+        int projetId = currentProjetId;
+        // Evaluations and their criteria come back together; selecting a row needs no extra query
+        loader.load("evaluations", () -> evaluationService.afficherParProjetAvecCriteres(projetId),
+                evaluations -> {
+                    ObservableList<Evaluation> items = FXCollections.observableArrayList(evaluations);
+                    tableEvaluations.setItems(items);
+                    lblTotal.setText(String.valueOf(items.size()));
+                    if (!items.isEmpty()) {
+                        tableEvaluations.getSelectionModel().selectFirst();
+                    } else {
+                        loadCriteria(null);
+                    }
+                },
+                error -> showError("Chargement impossible: " + error.getMessage()));
     }
 
     private void loadCriteria(Evaluation evaluation) {
@@ -109,10 +121,7 @@ public class ProjectEvaluationViewController {
             tableCriteres.setItems(FXCollections.observableArrayList());
             return;
         }
-        ObservableList<Models.CritereImpact> items = FXCollections.observableArrayList(
-                critereImpactService.afficherParEvaluation(evaluation.getIdEvaluation())
-        );
-        tableCriteres.setItems(items);
+        tableCriteres.setItems(FXCollections.observableArrayList(evaluation.getCriteres()));
     }
 
     private void showError(String message) {
@@ -1,7 +1,17 @@
 package Controllers;
 
+import Models.KeysetCursor;
 import Models.Projet;
+import Models.ProjetQuery;
+import Models.ProjetStatistics;
+import Services.ProjetSearchIndex;
 import Services.ProjetService;
+import Services.StatisticsService;
+import Utils.FxLoader;
+import Utils.ListDiff;
+import Utils.Refreshable;
+import Utils.TablePaging;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -13,14 +23,24 @@ import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.GreenLedger.MainFX;
 
-public class ProjetController {
+public class ProjetController implements Refreshable {
 
     private final ProjetService service = new ProjetService();
     private final Services.EvaluationService evaluationService = new Services.EvaluationService();
+    private final StatisticsService statisticsService = StatisticsService.getInstance();
+    private static final int SEARCH_LIMIT = 500;
+    private static final int PAGE_SIZE = 100;
+
     private final ObservableList<Projet> data = FXCollections.observableArrayList();
+    private KeysetCursor cursor;
+    private boolean hasMore;
+    private boolean searching;
+    private long version = -1;      // Database version of the loaded pages, for changesSince
     private java.util.Set<Integer> evaluatedProjectIds = java.util.Collections.emptySet();
+    private final FxLoader loader = new FxLoader();
 
     @FXML private TableView<Projet> table;
     @FXML private TableColumn<Projet, Number> colId;
@@ -32,6 +52,7 @@ public class ProjetController {
     @FXML private Label lblTotal;
     @FXML private Label lblDraft;
     @FXML private Label lblLocked;
+    @FXML private TextField txtSearch;
 
     @FXML private Button btnSettings;
     @FXML private Button btnAuditCarbone;
@@ -77,12 +98,14 @@ public class ProjetController {
         }
 
         table.setItems(data);
+        loader.bindTo(table);
+        TablePaging.onScrolledNearBottom(table, this::loadNextPage);
 
         table.setRowFactory(tv -> {
             TableRow<Projet> row = new TableRow<>();
             row.setOnMouseClicked(e -> {
                 if (e.getClickCount() == 2 && !row.isEmpty()) {
-                    openDetailWindow(row.getItem());
+                    openDetail(row.getItem());
                 }
             });
             return row;
@@ -92,6 +115,7 @@ public class ProjetController {
             btnSettings.setOnAction(e -> showSettings());
         }
 
+        setupSearch();
         refresh();
     }
 
@@ -132,15 +156,74 @@ public class ProjetController {
         showSettings();
     }
 
+    @Override
+    public void onShow() {
+        refresh();
+    }
+
     private void refresh() {
-        data.setAll(service.afficher());
-        evaluatedProjectIds = evaluationService.getProjetIdsWithEvaluations();
-        updateStats();
+        loader.load("stats", statisticsService::getStatistiques, this::updateStats, null);
+        loader.load("evaluatedIds", evaluationService::getProjetIdsWithEvaluations,
+                ids -> {
+                    evaluatedProjectIds = ids;
+                    table.refresh();
+                },
+                null);
+        applySearch();
+    }
+
+    private ProjetQuery listQuery() {
+        return new ProjetQuery().withDescription(false);
+    }
+
+    private void reloadPages() {
+        loader.cancel("projets");
+        loader.cancel("changes");
+        searching = false;
+        data.clear();
+        cursor = null;
+        hasMore = true;
+        version = -1;
+        loader.load("version", service::currentVersion, v -> version = v, null);
+        loadNextPage();
+    }
+
+    /**
+     * Fold the projets changed since the pages were loaded into the table, in place.
+     */
+    private void syncChanges() {
+        long since = version;
+        loader.load("changes", () -> service.changesSince(since, false),
+                changes -> {
+                    if (changes == null) {
+                        reloadPages();
+                        return;
+                    }
+                    if (!changes.isEmpty()) {
+                        ListDiff.merge(data, listQuery().apply(data, changes, hasMore), Projet::getId, Projet::sameContent);
+                    }
+                    version = changes.getVersion();
+                },
+                null);
     }
 
-    private void updateStats() {
-        int total = data.size();
-        long drafts = data.stream().filter(p -> "DRAFT".equalsIgnoreCase(p.getStatut())).count();
+    private void loadNextPage() {
+        if (!hasMore || loader.isLoading("projets")) {
+            return;
+        }
+        ProjetQuery query = listQuery().after(cursor).limit(PAGE_SIZE);
+        loader.load("projets", () -> service.afficherPage(query),
+                page -> {
+                    data.addAll(page.getItems());
+                    cursor = page.getNextCursor();
+                    hasMore = page.hasMore();
+                },
+                error -> showError("Chargement impossible: " + error.getMessage()));
+    }
+
+    private void updateStats(ProjetStatistics stats) {
+        long total = stats.getTotal();
+        long drafts = stats.getTotal("DRAFT");
         long locked = total - drafts;
 
         lblTotal.setText(String.valueOf(total));
@@ -148,6 +231,55 @@ public class ProjetController {
         lblLocked.setText(String.valueOf(locked));
     }
 
+    private void setupSearch() {
+        if (txtSearch == null) {
+            return;
+        }
+        // Search once typing pauses instead of on every keystroke
+        PauseTransition debounce = new PauseTransition(Duration.millis(150));
+        debounce.setOnFinished(e -> applySearch());
+        txtSearch.textProperty().addListener((obs, oldVal, newVal) -> debounce.playFromStart());
+    }
+
+    private void applySearch() {
+        String query = txtSearch == null ? "" : txtSearch.getText().trim();
+        if (query.isEmpty()) {
+            loader.cancel("search");
+            if (searching || data.isEmpty() || version < 0) {
+                reloadPages();
+            } else {
+                syncChanges();
+            }
+            return;
+        }
+        // Search hits are shown in rank order on a single page
+        loader.cancel("projets");
+        loader.cancel("changes");
+        searching = true;
+        hasMore = false;
+        loader.load("search", () -> {
+                    java.util.List<Integer> ids = service.search(query, SEARCH_LIMIT);
+                    java.util.List<Projet> hits = service.afficherPage(
+                            listQuery().ids(ids).limit(Math.max(1, ids.size()))).getItems();
+                    return ProjetSearchIndex.inRankOrder(hits, ids);
+                },
+                hits -> ListDiff.merge(data, hits, Projet::getId, Projet::sameContent),
+                null);
+    }
+
+    /**
+     * List rows are loaded without their description: fetch the full projet before opening it.
+     */
+    private void openDetail(Projet projet) {
+        loader.load("detail", () -> service.getById(projet.getId()),
+                full -> {
+                    if (full != null) {
+                        openDetailWindow(full);
+                    }
+                },
+                error -> showError("Impossible d'ouvrir détail: " + error.getMessage()));
+    }
+
     private void openDetailWindow(Projet projet) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/ProjetDetail.fxml"));
@@ -2,6 +2,7 @@ package Controllers;
 
 import Models.Projet;
 import Services.ProjetService;
+import Utils.FxLoader;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import org.GreenLedger.MainFX;
@@ -10,6 +11,7 @@ public class ProjetCreateController {
 
     private static final int TEST_ENTREPRISE_ID = 1;
     private final ProjetService service = new ProjetService();
+    private final FxLoader loader = new FxLoader();
 
     @FXML private TextField tfTitre;
     @FXML private TextField tfBudget;
@@ -50,8 +52,13 @@ public class ProjetCreateController {
         p.setCompanyEmail(emptyToNull(tfCompanyEmail.getText()));
         p.setCompanyPhone(emptyToNull(tfCompanyPhone.getText()));
 
-        service.insert(p);
-        goHome();
+        if (loader.isLoading("insert")) return;
+        loader.load("insert", () -> {
+                    service.insert(p);
+                    return p;
+                },
+                inserted -> goHome(),
+                e -> error("Enregistrement impossible: " + e.getMessage()));
     }
 
     private void goHome() {
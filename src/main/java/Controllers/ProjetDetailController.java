@@ -2,6 +2,7 @@ package Controllers;
 
 import Models.Projet;
 import Services.ProjetService;
+import Utils.FxLoader;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
@@ -9,6 +10,7 @@ import javafx.stage.Stage;
 public class ProjetDetailController {
 
     private final ProjetService service = new ProjetService();
+    private final FxLoader loader = new FxLoader();
 
     private Projet projet;
     private Runnable onChanged = null;
@@ -45,11 +47,11 @@ public class ProjetDetailController {
 
         if (!confirm(msg)) return;
 
-        if (isDraft) service.delete(projet.getId());
-        else service.cancel(projet.getId());
-
-        if (onChanged != null) onChanged.run();
-        closeWindow();
+        int id = projet.getId();
+        save(() -> {
+            if (isDraft) service.delete(id);
+            else service.cancel(id);
+        });
     }
 
     @FXML
@@ -91,15 +93,14 @@ public class ProjetDetailController {
         projet.setCompanyPhone(emptyToNull(tfCompanyPhone.getText()));
 
         if (!isDraft) {
-            service.updateDescriptionOnly(
-                    projet.getId(),
-                    projet.getDescription(),
-                    projet.getCompanyAddress(),
-                    projet.getCompanyEmail(),
-                    projet.getCompanyPhone()
-            );
-            if (onChanged != null) onChanged.run();
-            closeWindow();
+            Projet p = projet;
+            save(() -> service.updateDescriptionOnly(
+                    p.getId(),
+                    p.getDescription(),
+                    p.getCompanyAddress(),
+                    p.getCompanyEmail(),
+                    p.getCompanyPhone()
+            ));
             return;
         }
 
@@ -116,9 +117,24 @@ public class ProjetDetailController {
         projet.setTitre(titre);
         projet.setBudget(budget);
 
-        service.update(projet);
-        if (onChanged != null) onChanged.run();
-        closeWindow();
+        Projet p = projet;
+        save(() -> service.update(p));
+    }
+
+    /**
+     * Run a write in the background, then notify the list and close the window on the FX thread.
+     */
+    private void save(Runnable write) {
+        if (loader.isLoading("save")) return;
+        loader.load("save", () -> {
+                    write.run();
+                    return Boolean.TRUE;
+                },
+                saved -> {
+                    if (onChanged != null) onChanged.run();
+                    closeWindow();
+                },
+                e -> error("Enregistrement impossible: " + e.getMessage()));
     }
 
     private void render() {
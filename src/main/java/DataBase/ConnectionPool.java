@@ -0,0 +1,558 @@
+package DataBase;
+
+import Utils.LatencyHistogram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded JDBC connection pool.
+ * Connections are borrowed per operation and given back by calling close() on the returned handle,
+ * so services can simply use try-with-resources. Idle connections are validated on borrow,
+ * evicted after an idle timeout, recycled after a max lifetime, and long-held ones are reported as leaks.
+ * Statements left open by a caller are closed when the connection is given back, and any session state
+ * the caller changed (read-only, isolation, catalog...) is reset so the next borrower gets a clean connection.
+ * Callers only ever see the pooled handle: statements, result sets and unwrap() never expose the physical connection.
+ */
+public class ConnectionPool {
+
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final int VALIDATION_TIMEOUT_SEC = 2;
+
+    private final String url;
+    private final String user;
+    private final String pwd;
+
+    private int maxSize = 10;
+    private int minIdle = 2;
+    private long borrowTimeoutMs = 5_000;
+    private long idleTimeoutMs = 600_000;
+    private long maxLifetimeMs = 1_800_000;
+    private long leakThresholdMs = 60_000;
+    private boolean leakTracing;
+    private long housekeepingPeriodMs = 30_000;
+
+    private Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger destroyed = new AtomicInteger();
+    private final AtomicInteger leaks = new AtomicInteger();
+    private final LatencyHistogram borrowLatency = new LatencyHistogram();
+    private ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String pwd) {
+        this.url = url;
+        this.user = user;
+        this.pwd = pwd;
+    }
+
+    // ==================== CONFIGURATION ====================
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public void setBorrowTimeoutMs(long borrowTimeoutMs) {
+        this.borrowTimeoutMs = borrowTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public void setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+    }
+
+    public void setLeakThresholdMs(long leakThresholdMs) {
+        this.leakThresholdMs = leakThresholdMs;
+    }
+
+    /**
+     * Record where each connection is borrowed, so leak reports include the stack trace.
+     * Off by default: capturing the stack costs more than the borrow itself.
+     */
+    public void setLeakTracing(boolean leakTracing) {
+        this.leakTracing = leakTracing;
+    }
+
+    public void setHousekeepingPeriodMs(long housekeepingPeriodMs) {
+        this.housekeepingPeriodMs = housekeepingPeriodMs;
+    }
+
+    /**
+     * Start the pool. Must be called once after configuration and before the first borrow.
+     */
+    public synchronized void start() {
+        if (permits != null) {
+            return;
+        }
+        permits = new Semaphore(maxSize, true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        fillIdle();
+        housekeeper.scheduleAtFixedRate(this::housekeep, housekeepingPeriodMs, housekeepingPeriodMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== BORROW / RETURN ====================
+
+    /**
+     * Borrow a connection. Calling close() on the returned handle gives it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waiting.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            throw new SQLTimeoutException("No connection available after " + borrowTimeoutMs + " ms " + getStats());
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isExpired(entry, now) || !isAlive(entry, now)) {
+                    destroy(entry);
+                    continue;
+                }
+                break;
+            }
+            if (entry == null) {
+                entry = open();
+            }
+            entry.borrowedAt = now;
+            entry.borrowSite = leakTracing ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            entry.longRunning = false;
+            borrowed.add(entry);
+            borrowLatency.record(System.nanoTime() - start);
+            return wrap(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Exclude a borrowed connection from leak reports until it is returned, for work that legitimately
+     * holds it for a long time (a streaming export reads its whole result over one connection).
+     */
+    public void markLongRunning(Connection connection) {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof Handle handle) {
+            handle.entry.longRunning = true;
+        }
+    }
+
+    private void release(PooledEntry entry, boolean stateChanged) {
+        borrowed.remove(entry);
+        try {
+            if (closed || entry.physical.isClosed() || isExpired(entry, System.currentTimeMillis())) {
+                destroy(entry);
+                return;
+            }
+            // Never hand out a connection with pending work or a non-default mode
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            if (stateChanged) {
+                resetState(entry);
+            }
+            entry.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Put back the session settings the connection had when it was opened.
+     */
+    private void resetState(PooledEntry entry) throws SQLException {
+        Connection physical = entry.physical;
+        if (physical.isReadOnly() != entry.readOnly) {
+            physical.setReadOnly(entry.readOnly);
+        }
+        if (physical.getTransactionIsolation() != entry.isolation) {
+            physical.setTransactionIsolation(entry.isolation);
+        }
+        if (entry.catalog != null && !entry.catalog.equals(physical.getCatalog())) {
+            physical.setCatalog(entry.catalog);
+        }
+        if (physical.getHoldability() != entry.holdability) {
+            physical.setHoldability(entry.holdability);
+        }
+        physical.clearWarnings();
+    }
+
+    private PooledEntry open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, pwd);
+        created.incrementAndGet();
+        try {
+            return new PooledEntry(physical);
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledEntry entry) {
+        destroyed.incrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException ignored) {
+            // already broken, nothing else to release
+        }
+    }
+
+    private boolean isExpired(PooledEntry entry, long now) {
+        return maxLifetimeMs > 0 && now - entry.createdAt > maxLifetimeMs;
+    }
+
+    private boolean isAlive(PooledEntry entry, long now) {
+        if (now - entry.lastUsedAt < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(VALIDATION_TIMEOUT_SEC);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle(entry));
+    }
+
+    private static Object wrapChild(Object target, Object connection, Object parent) {
+        Class<?> type;
+        if (target instanceof CallableStatement) {
+            type = CallableStatement.class;
+        } else if (target instanceof PreparedStatement) {
+            type = PreparedStatement.class;
+        } else if (target instanceof Statement) {
+            type = Statement.class;
+        } else if (target instanceof ResultSet) {
+            type = ResultSet.class;
+        } else if (target instanceof DatabaseMetaData) {
+            type = DatabaseMetaData.class;
+        } else {
+            return target;
+        }
+        return Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{type},
+                new ChildHandle(target, connection, parent));
+    }
+
+    /**
+     * Open connections until minIdle are idle, without going over maxSize.
+     * A permit is held while opening so a concurrent borrow cannot push the pool past its bound.
+     */
+    private void fillIdle() {
+        while (!closed && idle.size() < minIdle && idle.size() + borrowed.size() < maxSize && permits.tryAcquire()) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                System.out.println("Could not pre-open a pooled connection: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    // ==================== HOUSEKEEPING ====================
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        int idleCount = idle.size();
+        for (PooledEntry entry : idle) {
+            boolean idleTooLong = idleTimeoutMs > 0 && now - entry.lastUsedAt > idleTimeoutMs && idleCount > minIdle;
+            if ((idleTooLong || isExpired(entry, now)) && idle.remove(entry)) {
+                destroy(entry);
+                idleCount--;
+            }
+        }
+        if (leakThresholdMs > 0) {
+            for (PooledEntry entry : borrowed) {
+                if (!entry.leakReported && !entry.longRunning && now - entry.borrowedAt > leakThresholdMs) {
+                    entry.leakReported = true;
+                    leaks.incrementAndGet();
+                    System.out.println("Possible connection leak: held for " + (now - entry.borrowedAt) + " ms" +
+                            (entry.borrowSite == null ? " (enable leak tracing to see where it was borrowed)" : ""));
+                    if (entry.borrowSite != null) {
+                        entry.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+        fillIdle();
+    }
+
+    /**
+     * Close every idle connection and refuse further borrows.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public int getDestroyedCount() {
+        return destroyed.get();
+    }
+
+    public int getLeakCount() {
+        return leaks.get();
+    }
+
+    public LatencyHistogram getBorrowLatency() {
+        return borrowLatency;
+    }
+
+    public String getStats() {
+        return String.format("[active=%d, idle=%d, waiting=%d, max=%d, created=%d, destroyed=%d, leaks=%d, borrow %s]",
+                getActiveCount(), getIdleCount(), getWaitingCount(), maxSize,
+                getCreatedCount(), getDestroyedCount(), getLeakCount(), borrowLatency);
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static class PooledEntry {
+        final Connection physical;
+        final long createdAt;
+        // Session settings at open time, restored on release when a borrower changed them
+        final boolean readOnly;
+        final int isolation;
+        final String catalog;
+        final int holdability;
+        volatile long lastUsedAt;
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        volatile boolean longRunning;
+
+        PooledEntry(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsedAt = createdAt;
+            this.readOnly = physical.isReadOnly();
+            this.isolation = physical.getTransactionIsolation();
+            this.catalog = physical.getCatalog();
+            this.holdability = physical.getHoldability();
+        }
+    }
+
+    /**
+     * Logical connection handed to callers; close() returns the physical connection to the pool.
+     */
+    private class Handle implements InvocationHandler {
+        private static final int STATEMENT_PRUNE_THRESHOLD = 64;
+
+        private final PooledEntry entry;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        // Set by session setters (autocommit and savepoints are undone by the rollback on release anyway),
+        // so release only reads the session state back when a borrower may have changed it
+        private volatile boolean stateChanged;
+        // Statements opened through this handle; any left open are closed when the connection is returned
+        private final List<Statement> statements = new ArrayList<>();
+
+        Handle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        closeStatements();
+                        release(entry, stateChanged);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || entry.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Pooled connection does not wrap " + args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + entry.physical;
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            String name = method.getName();
+            if (name.startsWith("set") && !name.equals("setAutoCommit") && !name.equals("setSavepoint")) {
+                stateChanged = true;
+            }
+            Object result;
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                track((Statement) result);
+            }
+            return wrapChild(result, proxy, proxy);
+        }
+
+        private synchronized void track(Statement statement) {
+            if (statements.size() >= STATEMENT_PRUNE_THRESHOLD) {
+                statements.removeIf(s -> {
+                    try {
+                        return s.isClosed();
+                    } catch (SQLException e) {
+                        return true;
+                    }
+                });
+            }
+            statements.add(statement);
+        }
+
+        private synchronized void closeStatements() {
+            for (Statement statement : statements) {
+                try {
+                    if (!statement.isClosed()) {
+                        statement.close();
+                    }
+                } catch (SQLException ignored) {
+                    // the connection is validated again before its next borrow
+                }
+            }
+            statements.clear();
+        }
+    }
+
+    /**
+     * Statement, result set or metadata handed out through a pooled connection.
+     * getConnection(), getStatement() and unwrap() answer with the pooled handles, never the driver objects.
+     */
+    private static class ChildHandle implements InvocationHandler {
+        private final Object target;
+        private final Object connection;
+        private final Object parent;
+
+        ChildHandle(Object target, Object connection, Object parent) {
+            this.target = target;
+            this.connection = connection;
+            this.parent = parent;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "getStatement":
+                    return parent instanceof Statement ? parent : null;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Pooled " + target.getClass().getSimpleName() + " does not wrap " + args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + target;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return result instanceof ResultSet ? wrapChild(result, connection, proxy) : result;
+        }
+    }
+}
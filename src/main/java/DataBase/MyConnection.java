@@ -1,35 +1,45 @@
 package DataBase;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class MyConnection {
 
-    private Connection conn;
-    private static MyConnection instance;
+    private final ConnectionPool pool;
+    private static volatile MyConnection instance;
 
-    private String url = "jdbc:mysql://localhost:3306/greenledger";
+    // Server-side prepared statements, cached per physical connection by SQL text:
+    // closing a PreparedStatement hands it back to the driver cache instead of deallocating it
+    private String url = "jdbc:mysql://localhost:3306/greenledger?rewriteBatchedStatements=true" +
+            "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=256&prepStmtCacheSqlLimit=2048";
     private String user = "root";
     private String pwd = "";
 
     private MyConnection() {
-        try {
-            conn = DriverManager.getConnection(url, user, pwd);
-            System.out.println("Connexion établie !");
-        } catch (SQLException e) {
-            System.out.println("Erreur connexion DB");
-        }
+        pool = new ConnectionPool(url, user, pwd);
+        pool.start();
+        System.out.println("Pool de connexions initialisé !");
     }
 
     public static MyConnection getInstance() {
         if (instance == null) {
-            instance = new MyConnection();
+            synchronized (MyConnection.class) {
+                if (instance == null) {
+                    instance = new MyConnection();
+                }
+            }
         }
         return instance;
     }
 
-    public static Connection getConnection() {
-        return MyConnection.getInstance().conn;
+    /**
+     * Borrow a connection from the pool. Always close it (try-with-resources) to give it back.
+     */
+    public static Connection getConnection() throws SQLException {
+        return MyConnection.getInstance().pool.borrow();
+    }
+
+    public static ConnectionPool getPool() {
+        return MyConnection.getInstance().pool;
     }
 }
@@ -0,0 +1,86 @@
+package Models;
+
+/**
+ * Aggregate of a wallet's credit batches for one (status, project) pair.
+ * Rows come from a single GROUP BY; totals per status or per project are summed from them.
+ */
+public class BatchSummary {
+
+    private String status;                 // AVAILABLE, PARTIALLY_RETIRED, FULLY_RETIRED (null for a total row)
+    private Integer projectId;             // null for a per-status or grand total row
+    private long batchCount;
+    private CreditAmount totalAmount;
+    private CreditAmount remainingAmount;
+
+    public BatchSummary() {
+        this.totalAmount = CreditAmount.ZERO;
+        this.remainingAmount = CreditAmount.ZERO;
+    }
+
+    public BatchSummary(String status, Integer projectId) {
+        this();
+        this.status = status;
+        this.projectId = projectId;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Integer projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public void setBatchCount(long batchCount) {
+        this.batchCount = batchCount;
+    }
+
+    public CreditAmount getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(CreditAmount totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public CreditAmount getRemainingAmount() {
+        return remainingAmount;
+    }
+
+    public void setRemainingAmount(CreditAmount remainingAmount) {
+        this.remainingAmount = remainingAmount;
+    }
+
+    // Utility methods
+    public CreditAmount getRetiredAmount() {
+        return totalAmount.minus(remainingAmount);
+    }
+
+    /**
+     * Add another group into this one (used to roll rows up per status or per project).
+     */
+    public void add(BatchSummary other) {
+        batchCount += other.batchCount;
+        totalAmount = totalAmount.plus(other.totalAmount);
+        remainingAmount = remainingAmount.plus(other.remainingAmount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchSummary[%s - Project: %s - %d batches - %s/%s remaining]",
+            status, projectId, batchCount, remainingAmount, totalAmount);
+    }
+}
@@ -0,0 +1,86 @@
+package Models;
+
+/**
+ * Outcome of a bulk credit issuance: per-order status plus overall throughput.
+ * Order results are indexed like the submitted order list.
+ */
+public class BulkIssueResult {
+
+    private final boolean[] success;
+    private final String[] errors;
+    private final int[] batchIds;
+    private long elapsedMillis;
+
+    public BulkIssueResult(int orderCount) {
+        this.success = new boolean[orderCount];
+        this.errors = new String[orderCount];
+        this.batchIds = new int[orderCount];
+    }
+
+    public void markIssued(int index, int batchId) {
+        success[index] = true;
+        errors[index] = null;
+        batchIds[index] = batchId;
+    }
+
+    public void markFailed(int index, String error) {
+        success[index] = false;
+        errors[index] = error;
+        batchIds[index] = -1;
+    }
+
+    public boolean isIssued(int index) {
+        return success[index];
+    }
+
+    /**
+     * Failure reason for an order, or null if it was issued.
+     */
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * Id of the credit batch created for an order, or -1 if it failed.
+     */
+    public int getBatchId(int index) {
+        return batchIds[index];
+    }
+
+    public int getOrderCount() {
+        return success.length;
+    }
+
+    public int getIssuedCount() {
+        int count = 0;
+        for (boolean ok : success) {
+            if (ok) count++;
+        }
+        return count;
+    }
+
+    public int getFailedCount() {
+        return getOrderCount() - getIssuedCount();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Issued orders per second.
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? getIssuedCount() * 1000.0 : getIssuedCount() * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkIssue[%d/%d issued in %d ms - %.0f orders/s]",
+            getIssuedCount(), getOrderCount(), elapsedMillis, getThroughput());
+    }
+}
@@ -1,6 +1,5 @@
 package Models;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -12,8 +11,8 @@ public class CarbonCreditBatch {
     private int id;
     private int projectId;                // Reference to carbon_projects
     private int walletId;                 // Wallet receiving the credits
-    private BigDecimal totalAmount;       // Total credits issued in this batch
-    private BigDecimal remainingAmount;   // Credits not yet retired
+    private CreditAmount totalAmount;     // Total credits issued in this batch
+    private CreditAmount remainingAmount; // Credits not yet retired
     private String status;                // AVAILABLE, PARTIALLY_RETIRED, FULLY_RETIRED
     private LocalDateTime issuedAt;
 
@@ -22,7 +21,7 @@ public class CarbonCreditBatch {
         this.status = "AVAILABLE";
     }
 
-    public CarbonCreditBatch(int projectId, int walletId, BigDecimal totalAmount) {
+    public CarbonCreditBatch(int projectId, int walletId, CreditAmount totalAmount) {
         this();
         this.projectId = projectId;
         this.walletId = walletId;
@@ -55,19 +54,19 @@ public class CarbonCreditBatch {
         this.walletId = walletId;
     }
 
-    public BigDecimal getTotalAmount() {
+    public CreditAmount getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(CreditAmount totalAmount) {
         this.totalAmount = totalAmount;
     }
 
-    public BigDecimal getRemainingAmount() {
+    public CreditAmount getRemainingAmount() {
         return remainingAmount;
     }
 
-    public void setRemainingAmount(BigDecimal remainingAmount) {
+    public void setRemainingAmount(CreditAmount remainingAmount) {
         this.remainingAmount = remainingAmount;
     }
 
@@ -88,22 +87,22 @@ public class CarbonCreditBatch {
     }
 
     // Utility methods
-    public BigDecimal getRetiredAmount() {
-        return totalAmount.subtract(remainingAmount);
+    public CreditAmount getRetiredAmount() {
+        return totalAmount.minus(remainingAmount);
     }
 
     public boolean isFullyRetired() {
-        return remainingAmount.compareTo(BigDecimal.ZERO) == 0;
+        return remainingAmount.isZero();
     }
 
     public boolean isPartiallyRetired() {
-        return remainingAmount.compareTo(totalAmount) < 0 && 
-               remainingAmount.compareTo(BigDecimal.ZERO) > 0;
+        return remainingAmount.isLessThan(totalAmount) && 
+               remainingAmount.isPositive();
     }
 
     @Override
     public String toString() {
-        return String.format("Batch[#%d - Project: %d - %.2f/%.2f remaining]", 
+        return String.format("Batch[#%d - Project: %d - %s/%s remaining]", 
             id, projectId, remainingAmount, totalAmount);
     }
 }
@@ -0,0 +1,42 @@
+package Models;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rows created or modified and ids deleted since a version, plus the version to ask from next time.
+ * A version is a database timestamp in epoch milliseconds.
+ */
+public class ChangeSet<T> {
+
+    private final List<T> changed;
+    private final Set<Integer> deletedIds;
+    private final long version;
+
+    public ChangeSet(List<T> changed, Set<Integer> deletedIds, long version) {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+        this.version = version;
+    }
+
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public Set<Integer> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ChangeSet[%d changed - %d deleted - v%d]", changed.size(), deletedIds.size(), version);
+    }
+}
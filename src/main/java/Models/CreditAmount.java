@@ -0,0 +1,141 @@
+package Models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact amount of carbon credits stored as a scaled long (hundredths of a credit),
+ * matching the DECIMAL(15,2) columns of the schema.
+ * Arithmetic never allocates a BigDecimal; conversion only happens at the JDBC boundary.
+ */
+public final class CreditAmount implements Comparable<CreditAmount> {
+
+    public static final int SCALE = 2;
+    public static final CreditAmount ZERO = new CreditAmount(0);
+    // Largest amount a DECIMAL(15,2) column holds
+    private static final BigDecimal MAX_VALUE = new BigDecimal("9999999999999.99");
+
+    private final long cents;             // Amount in hundredths of a credit
+
+    private CreditAmount(long cents) {
+        this.cents = cents;
+    }
+
+    // Factories
+    public static CreditAmount ofCents(long cents) {
+        return cents == 0 ? ZERO : new CreditAmount(cents);
+    }
+
+    /**
+     * Amount read from a DECIMAL(15,2) column (rounded to the cent).
+     * @throws NumberFormatException if the value does not fit in a long number of cents
+     */
+    public static CreditAmount of(BigDecimal value) {
+        if (value == null) {
+            return ZERO;
+        }
+        try {
+            return ofCents(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Montant hors limites: " + value);
+        }
+    }
+
+    public static CreditAmount of(double credits) {
+        return ofCents(Math.round(credits * 100));
+    }
+
+    /**
+     * Parse user input such as "12", "12.5" or "12,50".
+     * Input is never rounded: more than two decimals, or an amount too large for the DECIMAL(15,2)
+     * columns, is rejected with a NumberFormatException like any other invalid input.
+     */
+    public static CreditAmount parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new NumberFormatException("Montant vide");
+        }
+        BigDecimal value = new BigDecimal(text.trim().replace(',', '.')).stripTrailingZeros();
+        if (value.scale() > SCALE) {
+            throw new NumberFormatException("Au plus " + SCALE + " décimales: " + text.trim());
+        }
+        if (value.abs().compareTo(MAX_VALUE) > 0) {
+            throw new NumberFormatException("Montant trop grand: " + text.trim());
+        }
+        return ofCents(value.movePointRight(SCALE).longValueExact());
+    }
+
+    // Arithmetic
+    public CreditAmount plus(CreditAmount other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public CreditAmount minus(CreditAmount other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public CreditAmount negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    /**
+     * Fraction of this amount (e.g. 0.25 for a 25% quick amount), rounded to the cent.
+     */
+    public CreditAmount multiply(double factor) {
+        return ofCents(Math.round(cents * factor));
+    }
+
+    public static CreditAmount min(CreditAmount a, CreditAmount b) {
+        return a.cents <= b.cents ? a : b;
+    }
+
+    // Comparisons
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isLessThan(CreditAmount other) {
+        return cents < other.cents;
+    }
+
+    @Override
+    public int compareTo(CreditAmount other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    // Conversions
+    public long toCents() {
+        return cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CreditAmount && ((CreditAmount) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        return (cents < 0 ? "-" : "") + (abs / 100) + "." + (abs % 100 < 10 ? "0" : "") + (abs % 100);
+    }
+}
@@ -1,5 +1,7 @@
 package Models;
 
+import java.util.Objects;
+
 public class CritereImpact {
 
     private int idCritere;
@@ -31,4 +33,10 @@ public class CritereImpact {
 
     public int getIdEvaluation() { return idEvaluation; }
     public void setIdEvaluation(int idEvaluation) { this.idEvaluation = idEvaluation; }
+
+    public boolean sameContent(CritereImpact other) {
+        return other != null && idCritere == other.idCritere && note == other.note && idEvaluation == other.idEvaluation
+                && Objects.equals(nom, other.nom)
+                && Objects.equals(commentaireTechnique, other.commentaireTechnique);
+    }
 }
@@ -1,6 +1,9 @@
 package Models;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 public class Evaluation {
 
@@ -11,6 +14,7 @@ public class Evaluation {
     private String decision;
     private int idProjet;
     private String titreProjet;
+    private List<CritereImpact> criteres = new ArrayList<>();   // Filled by EvaluationService.afficherParProjetAvecCriteres
 
     public Evaluation() {}
 
@@ -41,4 +45,19 @@ public class Evaluation {
 
     public String getTitreProjet() { return titreProjet; }
     public void setTitreProjet(String titreProjet) { this.titreProjet = titreProjet; }
+
+    public List<CritereImpact> getCriteres() { return criteres; }
+    public void setCriteres(List<CritereImpact> criteres) { this.criteres = criteres; }
+
+    /**
+     * True when every column of the other evaluation equals this one (criteria are not compared).
+     */
+    public boolean sameContent(Evaluation other) {
+        return other != null && idEvaluation == other.idEvaluation && idProjet == other.idProjet
+                && Double.compare(scoreGlobal, other.scoreGlobal) == 0
+                && Objects.equals(dateEvaluation, other.dateEvaluation)
+                && Objects.equals(observations, other.observations)
+                && Objects.equals(decision, other.decision)
+                && Objects.equals(titreProjet, other.titreProjet);
+    }
 }
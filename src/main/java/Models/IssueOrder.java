@@ -0,0 +1,61 @@
+package Models;
+
+/**
+ * One credit issuance request inside a bulk distribution
+ * (e.g. a verified project distributing credits to investor wallets).
+ */
+public class IssueOrder {
+
+    private int walletId;                 // Wallet receiving the credits
+    private int projectId;                // Verified project the credits come from
+    private CreditAmount amount;          // Credits to issue
+    private String referenceNote;         // Description/reason for the issuance
+
+    // Constructors
+    public IssueOrder() {}
+
+    public IssueOrder(int walletId, int projectId, CreditAmount amount, String referenceNote) {
+        this.walletId = walletId;
+        this.projectId = projectId;
+        this.amount = amount;
+        this.referenceNote = referenceNote;
+    }
+
+    // Getters and Setters
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(int walletId) {
+        this.walletId = walletId;
+    }
+
+    public int getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(int projectId) {
+        this.projectId = projectId;
+    }
+
+    public CreditAmount getAmount() {
+        return amount;
+    }
+
+    public void setAmount(CreditAmount amount) {
+        this.amount = amount;
+    }
+
+    public String getReferenceNote() {
+        return referenceNote;
+    }
+
+    public void setReferenceNote(String referenceNote) {
+        this.referenceNote = referenceNote;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IssueOrder[wallet %d - project %d - %s credits]", walletId, projectId, amount);
+    }
+}
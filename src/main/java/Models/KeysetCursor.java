@@ -0,0 +1,40 @@
+package Models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a list ordered by (sort value, id), used for keyset pagination.
+ * The sort value is usually a timestamp, but any column value works (budget, title...).
+ * The next page starts strictly after this row, so no OFFSET scan is needed.
+ */
+public class KeysetCursor {
+
+    private final Object value;
+    private final int id;
+
+    public KeysetCursor(LocalDateTime timestamp, int id) {
+        this((Object) timestamp, id);
+    }
+
+    public KeysetCursor(Object value, int id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return (LocalDateTime) value;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cursor[%s - #%d]", value, id);
+    }
+}
@@ -0,0 +1,47 @@
+package Models;
+
+/**
+ * Balances of a wallet derived from its ledger: latest snapshot plus the events after it.
+ */
+public class LedgerBalance {
+
+    private final int walletId;
+    private final long seq;                      // Last event included
+    private final CreditAmount availableCredits;
+    private final CreditAmount retiredCredits;
+    private final long replayedEvents;           // Events folded on top of the snapshot
+
+    public LedgerBalance(int walletId, long seq, CreditAmount availableCredits, CreditAmount retiredCredits, long replayedEvents) {
+        this.walletId = walletId;
+        this.seq = seq;
+        this.availableCredits = availableCredits;
+        this.retiredCredits = retiredCredits;
+        this.replayedEvents = replayedEvents;
+    }
+
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public CreditAmount getAvailableCredits() {
+        return availableCredits;
+    }
+
+    public CreditAmount getRetiredCredits() {
+        return retiredCredits;
+    }
+
+    public long getReplayedEvents() {
+        return replayedEvents;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LedgerBalance[wallet %d @%d - available %s, retired %s, %d replayed]",
+            walletId, seq, availableCredits, retiredCredits, replayedEvents);
+    }
+}
@@ -0,0 +1,121 @@
+package Models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable entry of the append-only credit ledger.
+ * Each credit movement of a wallet is one event carrying signed deltas; a wallet's balances are
+ * the fold (sum) of its events, numbered by a dense per-wallet sequence.
+ */
+public class LedgerEvent {
+
+    private long id;
+    private int walletId;
+    private long seq;                     // Position in the wallet's ledger (1, 2, 3...)
+    private String type;                  // OPENING, ISSUE, RETIRE, TRANSFER_IN, TRANSFER_OUT, ADJUSTMENT
+    private CreditAmount availableDelta;
+    private CreditAmount retiredDelta;
+    private Integer batchId;              // Batch concerned, if any
+    private LocalDateTime createdAt;
+
+    public LedgerEvent() {
+        this.availableDelta = CreditAmount.ZERO;
+        this.retiredDelta = CreditAmount.ZERO;
+    }
+
+    public LedgerEvent(int walletId, String type, CreditAmount availableDelta, CreditAmount retiredDelta, Integer batchId) {
+        this.walletId = walletId;
+        this.type = type;
+        this.availableDelta = availableDelta;
+        this.retiredDelta = retiredDelta;
+        this.batchId = batchId;
+    }
+
+    /**
+     * Event matching a wallet transaction type (ISSUE, RETIRE, TRANSFER_IN, TRANSFER_OUT).
+     */
+    public static LedgerEvent forTransaction(int walletId, String type, CreditAmount amount, Integer batchId) {
+        switch (type) {
+            case "ISSUE":
+            case "TRANSFER_IN":
+                return new LedgerEvent(walletId, type, amount, CreditAmount.ZERO, batchId);
+            case "TRANSFER_OUT":
+                return new LedgerEvent(walletId, type, amount.negate(), CreditAmount.ZERO, batchId);
+            case "RETIRE":
+                return new LedgerEvent(walletId, type, amount.negate(), amount, batchId);
+            default:
+                throw new IllegalArgumentException("Unknown transaction type: " + type);
+        }
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(int walletId) {
+        this.walletId = walletId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public CreditAmount getAvailableDelta() {
+        return availableDelta;
+    }
+
+    public void setAvailableDelta(CreditAmount availableDelta) {
+        this.availableDelta = availableDelta;
+    }
+
+    public CreditAmount getRetiredDelta() {
+        return retiredDelta;
+    }
+
+    public void setRetiredDelta(CreditAmount retiredDelta) {
+        this.retiredDelta = retiredDelta;
+    }
+
+    public Integer getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Integer batchId) {
+        this.batchId = batchId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LedgerEvent[wallet %d #%d - %s - available %s, retired %s]",
+            walletId, seq, type, availableDelta, retiredDelta);
+    }
+}
@@ -1,6 +1,5 @@
 package Models;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -13,21 +12,21 @@ public class OperationWallet {
     private int walletId;                 // Wallet affected by this transaction
     private Integer batchId;              // Credit batch involved (nullable for some ops)
     private String type;                  // ISSUE, RETIRE, TRANSFER
-    private BigDecimal amount;            // Number of credits
+    private CreditAmount amount;          // Number of credits
     private String referenceNote;         // Description/reason for transaction
     private LocalDateTime createdAt;
 
     // Constructors
     public OperationWallet() {}
 
-    public OperationWallet(int walletId, String type, BigDecimal amount, String referenceNote) {
+    public OperationWallet(int walletId, String type, CreditAmount amount, String referenceNote) {
         this.walletId = walletId;
         this.type = type;
         this.amount = amount;
         this.referenceNote = referenceNote;
     }
 
-    public OperationWallet(int walletId, Integer batchId, String type, BigDecimal amount, String referenceNote) {
+    public OperationWallet(int walletId, Integer batchId, String type, CreditAmount amount, String referenceNote) {
         this(walletId, type, amount, referenceNote);
         this.batchId = batchId;
     }
@@ -65,11 +64,11 @@ public class OperationWallet {
         this.type = type;
     }
 
-    public BigDecimal getAmount() {
+    public CreditAmount getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(CreditAmount amount) {
         this.amount = amount;
     }
 
@@ -91,7 +90,7 @@ public class OperationWallet {
 
     @Override
     public String toString() {
-        return String.format("Transaction[%s - %.2f credits - %s]", 
+        return String.format("Transaction[%s - %s credits - %s]", 
             type, amount, referenceNote);
     }
 }
@@ -0,0 +1,29 @@
+package Models;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final KeysetCursor nextCursor;   // Cursor to fetch the following page (null when last)
+
+    public Page(List<T> items, KeysetCursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public KeysetCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,98 @@
+package Models;
+
+/**
+ * Portfolio figures for one (owner type, project) pair, read from the materialized portfolio_summary table.
+ * Credits issued without a project (quick issue) and movements not tied to a project (retire, transfer)
+ * are kept under project 0.
+ */
+public class PortfolioSummary {
+
+    private String ownerType;              // ENTERPRISE, BANK... (null for a total row)
+    private Integer projectId;             // 0 when no project, null for a total row
+    private long movements;                // Transactions folded into the row
+    private CreditAmount issued;
+    private CreditAmount retired;
+    private CreditAmount transferred;      // Counted once, on the sending side
+
+    public PortfolioSummary() {
+        this.issued = CreditAmount.ZERO;
+        this.retired = CreditAmount.ZERO;
+        this.transferred = CreditAmount.ZERO;
+    }
+
+    public PortfolioSummary(String ownerType, Integer projectId) {
+        this();
+        this.ownerType = ownerType;
+        this.projectId = projectId;
+    }
+
+    // Getters and Setters
+    public String getOwnerType() {
+        return ownerType;
+    }
+
+    public void setOwnerType(String ownerType) {
+        this.ownerType = ownerType;
+    }
+
+    public Integer getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Integer projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getMovements() {
+        return movements;
+    }
+
+    public void setMovements(long movements) {
+        this.movements = movements;
+    }
+
+    public CreditAmount getIssued() {
+        return issued;
+    }
+
+    public void setIssued(CreditAmount issued) {
+        this.issued = issued;
+    }
+
+    public CreditAmount getRetired() {
+        return retired;
+    }
+
+    public void setRetired(CreditAmount retired) {
+        this.retired = retired;
+    }
+
+    public CreditAmount getTransferred() {
+        return transferred;
+    }
+
+    public void setTransferred(CreditAmount transferred) {
+        this.transferred = transferred;
+    }
+
+    // Utility methods
+    public CreditAmount getOutstanding() {
+        return issued.minus(retired);
+    }
+
+    /**
+     * Add another row into this one (used to roll rows up per owner type or globally).
+     */
+    public void add(PortfolioSummary other) {
+        movements += other.movements;
+        issued = issued.plus(other.issued);
+        retired = retired.plus(other.retired);
+        transferred = transferred.plus(other.transferred);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PortfolioSummary[%s - Project: %s - issued %s, retired %s, transferred %s]",
+            ownerType, projectId, issued, retired, transferred);
+    }
+}
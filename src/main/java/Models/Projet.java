@@ -1,5 +1,8 @@
 package Models;
 
+import java.time.LocalDateTime;
+import java.util.Objects;
+
 public class Projet {
     private int id;
     private int entrepriseId;
@@ -13,6 +16,7 @@ public class Projet {
     private String companyAddress;
     private String companyEmail;
     private String companyPhone;
+    private LocalDateTime dateCreation;
 
     public Projet() {}
 
@@ -100,6 +104,13 @@ public class Projet {
         this.companyPhone = companyPhone;
     }
 
+    public LocalDateTime getDateCreation() {
+        return dateCreation;
+    }
+    public void setDateCreation(LocalDateTime dateCreation) {
+        this.dateCreation = dateCreation;
+    }
+
     public String getStatutEvaluation() {
         return this.statut;
     }
@@ -108,4 +119,20 @@ public class Projet {
         this.statut = statutEvaluation;
     }
 
+    /**
+     * True when every column of the other projet equals this one (used to skip unchanged table rows).
+     */
+    public boolean sameContent(Projet other) {
+        return other != null && id == other.id && entrepriseId == other.entrepriseId
+                && Double.compare(budget, other.budget) == 0
+                && Objects.equals(titre, other.titre)
+                && Objects.equals(description, other.description)
+                && Objects.equals(scoreEsg, other.scoreEsg)
+                && Objects.equals(statut, other.statut)
+                && Objects.equals(companyAddress, other.companyAddress)
+                && Objects.equals(companyEmail, other.companyEmail)
+                && Objects.equals(companyPhone, other.companyPhone)
+                && Objects.equals(dateCreation, other.dateCreation);
+    }
+
 }
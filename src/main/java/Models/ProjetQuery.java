@@ -0,0 +1,246 @@
+package Models;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filters, sort order, page position and projection of a projet listing.
+ * ProjetService turns it into a single SQL query: every filter is a WHERE clause, the sort is an
+ * ORDER BY (sort column, id) and the page position a keyset cursor, so no rows are filtered,
+ * sorted or skipped in memory.
+ */
+public class ProjetQuery {
+
+    public enum Sort {
+        DATE_CREATION("date_creation"),
+        BUDGET("budget"),
+        SCORE("score_esg"),
+        TITRE("titre"),
+        ID("id");
+
+        private final String column;
+
+        Sort(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * True when the sort column can be NULL (NULLs sort first ascending and last descending, as in SQL).
+         */
+        public boolean isNullable() {
+            return this == DATE_CREATION || this == TITRE;
+        }
+
+        /**
+         * Sort value of a projet, as compared by SQL (no score sorts as -1).
+         */
+        public Comparable<?> valueOf(Projet p) {
+            switch (this) {
+                case DATE_CREATION: return p.getDateCreation();
+                case BUDGET: return p.getBudget();
+                case SCORE: return p.getScoreEsg() == null ? -1 : p.getScoreEsg();
+                case TITRE: return p.getTitre();
+                default: return p.getId();
+            }
+        }
+    }
+
+    private String statut;
+    private Integer entrepriseId;
+    private Integer minScore;
+    private Integer maxScore;
+    private Double minBudget;
+    private Double maxBudget;
+    private Collection<Integer> ids;            // Restrict to these projets (e.g. search hits)
+    private Sort sort = Sort.DATE_CREATION;
+    private boolean descending = true;
+    private KeysetCursor after;                 // Start strictly after this row (null: first page)
+    private int limit = 100;
+    private boolean withDescription = true;     // Large text column, left out of list views
+
+    public ProjetQuery statut(String statut) {
+        this.statut = statut;
+        return this;
+    }
+
+    public ProjetQuery entreprise(Integer entrepriseId) {
+        this.entrepriseId = entrepriseId;
+        return this;
+    }
+
+    /**
+     * Score range (bounds inclusive, null for open). Projets without a score never match a score filter.
+     */
+    public ProjetQuery score(Integer min, Integer max) {
+        this.minScore = min;
+        this.maxScore = max;
+        return this;
+    }
+
+    /**
+     * Budget range (bounds inclusive, null for open).
+     */
+    public ProjetQuery budget(Double min, Double max) {
+        this.minBudget = min;
+        this.maxBudget = max;
+        return this;
+    }
+
+    public ProjetQuery ids(Collection<Integer> ids) {
+        this.ids = ids;
+        return this;
+    }
+
+    public ProjetQuery sortBy(Sort sort, boolean descending) {
+        this.sort = sort;
+        this.descending = descending;
+        return this;
+    }
+
+    public ProjetQuery after(KeysetCursor after) {
+        this.after = after;
+        return this;
+    }
+
+    public ProjetQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public ProjetQuery withDescription(boolean withDescription) {
+        this.withDescription = withDescription;
+        return this;
+    }
+
+    /**
+     * True when the projet passes the filters of this query (used to apply changes to a loaded list).
+     */
+    public boolean matches(Projet p) {
+        if (statut != null && !statut.equalsIgnoreCase(p.getStatut())) {
+            return false;
+        }
+        if (entrepriseId != null && entrepriseId != p.getEntrepriseId()) {
+            return false;
+        }
+        Integer score = p.getScoreEsg();
+        if ((minScore != null || maxScore != null) && score == null) {
+            return false;
+        }
+        if ((minScore != null && score < minScore) || (maxScore != null && score > maxScore)) {
+            return false;
+        }
+        if ((minBudget != null && p.getBudget() < minBudget) || (maxBudget != null && p.getBudget() > maxBudget)) {
+            return false;
+        }
+        return ids == null || ids.contains(p.getId());
+    }
+
+    /**
+     * Order of the listing: sort value then id, both in the query direction. Null values sort first.
+     * Titles are compared like the utf8mb4_unicode_ci column (case and accents ignored), so a merged
+     * list keeps the server's order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<Projet> comparator() {
+        Comparator<Projet> order;
+        if (sort == Sort.TITRE) {
+            Collator collator = Collator.getInstance(Locale.FRENCH);
+            collator.setStrength(Collator.PRIMARY);
+            order = Comparator.comparing(Projet::getTitre, Comparator.nullsFirst(collator));
+        } else {
+            order = Comparator.comparing(p -> (Comparable) sort.valueOf(p),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+        order = order.thenComparingInt(Projet::getId);
+        return descending ? order.reversed() : order;
+    }
+
+    /**
+     * Apply changes to the rows of this listing loaded so far (in listing order).
+     * Deleted rows and rows that no longer match are dropped; changed rows that match are put at their
+     * sorted position, unless more pages remain and they sort after the last loaded row (a later page
+     * will bring them).
+     * @return the updated rows, in listing order
+     */
+    public List<Projet> apply(List<Projet> loaded, ChangeSet<Projet> changes, boolean hasMore) {
+        Comparator<Projet> order = comparator();
+        Projet boundary = hasMore && !loaded.isEmpty() ? loaded.get(loaded.size() - 1) : null;
+        Set<Integer> touched = new HashSet<>(changes.getDeletedIds());
+        for (Projet p : changes.getChanged()) {
+            touched.add(p.getId());
+        }
+        List<Projet> rows = new ArrayList<>(loaded.size() + changes.getChanged().size());
+        for (Projet p : loaded) {
+            if (!touched.contains(p.getId())) {
+                rows.add(p);
+            }
+        }
+        for (Projet p : changes.getChanged()) {
+            if (!changes.getDeletedIds().contains(p.getId()) && matches(p)
+                    && (boundary == null || order.compare(p, boundary) <= 0)) {
+                rows.add(p);
+            }
+        }
+        rows.sort(order);
+        return rows;
+    }
+
+    // Getters
+    public String getStatut() {
+        return statut;
+    }
+
+    public Integer getEntrepriseId() {
+        return entrepriseId;
+    }
+
+    public Integer getMinScore() {
+        return minScore;
+    }
+
+    public Integer getMaxScore() {
+        return maxScore;
+    }
+
+    public Double getMinBudget() {
+        return minBudget;
+    }
+
+    public Double getMaxBudget() {
+        return maxBudget;
+    }
+
+    public Collection<Integer> getIds() {
+        return ids;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public KeysetCursor getAfter() {
+        return after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isWithDescription() {
+        return withDescription;
+    }
+}
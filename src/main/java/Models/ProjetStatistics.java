@@ -0,0 +1,67 @@
+package Models;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the dashboard counters: number of projets and of evaluated projets (with at least
+ * one evaluation) per statut. Statuts are stored upper-case, lookups are case-insensitive.
+ */
+public class ProjetStatistics {
+
+    private final Map<String, long[]> parStatut = new HashMap<>();   // statut -> {total, evalues}
+    private long total;
+    private long evalues;
+
+    public void add(String statut, long count, long evaluated) {
+        parStatut.merge(key(statut), new long[]{count, evaluated}, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+        total += count;
+        evalues += evaluated;
+    }
+
+    // Getters
+    public long getTotal() {
+        return total;
+    }
+
+    public long getTotal(String statut) {
+        return counts(statut)[0];
+    }
+
+    public long getEvalues() {
+        return evalues;
+    }
+
+    public long getEvalues(String statut) {
+        return counts(statut)[1];
+    }
+
+    public long getNonEvalues() {
+        return total - evalues;
+    }
+
+    public long getNonEvalues(String statut) {
+        long[] counts = counts(statut);
+        return counts[0] - counts[1];
+    }
+
+    public Map<String, Long> getTotalParStatut() {
+        Map<String, Long> totals = new HashMap<>();
+        parStatut.forEach((statut, counts) -> totals.put(statut, counts[0]));
+        return Collections.unmodifiableMap(totals);
+    }
+
+    private long[] counts(String statut) {
+        return parStatut.getOrDefault(key(statut), new long[2]);
+    }
+
+    private static String key(String statut) {
+        return statut == null ? "" : statut.trim().toUpperCase();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProjetStatistics[total %d - evalues %d - statuts %s]", total, evalues, getTotalParStatut());
+    }
+}
@@ -1,6 +1,5 @@
 package Models;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -14,14 +13,14 @@ public class Wallet {
     private String name;                  // Wallet display name
     private String ownerType;             // ENTERPRISE or BANK (varchar)
     private int ownerId;                  // Reference to user/enterprise record (NOT NULL)
-    private double availableCredits;      // Credits available for use (double)
-    private double retiredCredits;        // Credits permanently retired (double)
+    private CreditAmount availableCredits;  // Credits available for use
+    private CreditAmount retiredCredits;    // Credits permanently retired
     private LocalDateTime createdAt;
 
     // Constructors
     public Wallet() {
-        this.availableCredits = 0.0;
-        this.retiredCredits = 0.0;
+        this.availableCredits = CreditAmount.ZERO;
+        this.retiredCredits = CreditAmount.ZERO;
     }
 
     public Wallet(String ownerType, int ownerId) {
@@ -30,6 +29,17 @@ public class Wallet {
         this.ownerId = ownerId;
     }
 
+    public Wallet(Wallet other) {
+        this.id = other.id;
+        this.walletNumber = other.walletNumber;
+        this.name = other.name;
+        this.ownerType = other.ownerType;
+        this.ownerId = other.ownerId;
+        this.availableCredits = other.availableCredits;
+        this.retiredCredits = other.retiredCredits;
+        this.createdAt = other.createdAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -71,19 +81,19 @@ public class Wallet {
         this.ownerId = ownerId;
     }
 
-    public double getAvailableCredits() {
+    public CreditAmount getAvailableCredits() {
         return availableCredits;
     }
 
-    public void setAvailableCredits(double availableCredits) {
+    public void setAvailableCredits(CreditAmount availableCredits) {
         this.availableCredits = availableCredits;
     }
 
-    public double getRetiredCredits() {
+    public CreditAmount getRetiredCredits() {
         return retiredCredits;
     }
 
-    public void setRetiredCredits(double retiredCredits) {
+    public void setRetiredCredits(CreditAmount retiredCredits) {
         this.retiredCredits = retiredCredits;
     }
 
@@ -96,13 +106,13 @@ public class Wallet {
     }
 
     // Utility methods
-    public double getTotalCredits() {
-        return availableCredits + retiredCredits;
+    public CreditAmount getTotalCredits() {
+        return availableCredits.plus(retiredCredits);
     }
 
     @Override
     public String toString() {
-        return String.format("Wallet[%d - %s - %s: %.2f credits available]", 
+        return String.format("Wallet[%d - %s - %s: %s credits available]", 
             walletNumber, name != null ? name : "Unnamed", ownerType, availableCredits);
     }
 }
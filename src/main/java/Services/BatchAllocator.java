@@ -0,0 +1,278 @@
+package Services;
+
+import Models.CreditAmount;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FIFO allocation engine for credit retirement.
+ * Keeps, per wallet, a priority queue of open batches ordered by (issued_at, id). The queue is
+ * filled lazily page by page, so a retirement only reads the oldest batches it actually consumes,
+ * and all batch decrements are written with one JDBC batch.
+ * Callers must hold the wallet lock (see {@link WalletLockManager}) around allocate/commit/rollback.
+ */
+public class BatchAllocator {
+
+    private static final int PAGE_SIZE = 256;
+    private static final BatchAllocator instance = new BatchAllocator();
+
+    private static final Comparator<OpenBatch> FIFO = Comparator
+            .comparing((OpenBatch b) -> b.issuedAt)
+            .thenComparingInt(b -> b.id);
+
+    private final Map<Integer, WalletBatches> wallets = new ConcurrentHashMap<>();
+
+    private BatchAllocator() {}
+
+    public static BatchAllocator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Compute the FIFO split of an amount over the wallet's open batches.
+     * Consumed batches are taken out of the queue until {@link #commit} or {@link #rollback}.
+     */
+    public Allocation allocate(Connection conn, int walletId, CreditAmount amount) throws SQLException {
+        WalletBatches state = wallets.computeIfAbsent(walletId, id -> new WalletBatches());
+        Allocation allocation = new Allocation(walletId);
+        synchronized (state) {
+            long remaining = amount.toCents();
+            while (remaining > 0) {
+                if (state.queue.isEmpty()) {
+                    if (state.exhausted) break;
+                    try {
+                        loadNextPage(conn, walletId, state);
+                    } catch (SQLException ex) {
+                        invalidate(walletId);
+                        throw ex;
+                    }
+                    continue;
+                }
+                OpenBatch batch = state.queue.poll();
+                state.byId.remove(batch.id);
+                long take = Math.min(remaining, batch.remaining);
+                allocation.add(batch, take);
+                remaining -= take;
+            }
+        }
+        return allocation;
+    }
+
+    /**
+     * Write every batch decrement of an allocation in one JDBC batch.
+     * Returns false if a batch no longer holds what the queue expected (stale in-memory state);
+     * the caller should roll back, call {@link #rollback} and retry.
+     */
+    public boolean write(Connection conn, Allocation allocation) throws SQLException {
+        if (allocation.batches.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE carbon_credit_batches SET remaining_amount = remaining_amount - ?, " +
+                     "status = CASE WHEN remaining_amount - ? = 0 THEN 'FULLY_RETIRED' " +
+                     "WHEN remaining_amount - ? < total_amount THEN 'PARTIALLY_RETIRED' " +
+                     "ELSE status END WHERE id = ? AND remaining_amount >= ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < allocation.batches.size(); i++) {
+                BigDecimal take = BigDecimal.valueOf(allocation.amounts[i], CreditAmount.SCALE);
+                ps.setBigDecimal(1, take);
+                ps.setBigDecimal(2, take);
+                ps.setBigDecimal(3, take);
+                ps.setInt(4, allocation.batches.get(i).id);
+                ps.setBigDecimal(5, take);
+                ps.addBatch();
+            }
+            boolean verify = false;
+            for (int count : ps.executeBatch()) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    // The driver did not report this row count (rewritten batch): check the rows instead
+                    verify = true;
+                } else if (count <= 0) {
+                    return false;
+                }
+            }
+            if (verify) {
+                return verifyWritten(conn, allocation);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read back, in the caller's transaction, the batches an allocation decremented and check that
+     * each one now holds exactly what the queue expected after the decrement.
+     */
+    private boolean verifyWritten(Connection conn, Allocation allocation) throws SQLException {
+        Map<Integer, Long> expected = new HashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT id, remaining_amount FROM carbon_credit_batches WHERE id IN (");
+        for (int i = 0; i < allocation.batches.size(); i++) {
+            OpenBatch batch = allocation.batches.get(i);
+            expected.put(batch.id, batch.remaining - allocation.amounts[i]);
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < allocation.batches.size(); i++) {
+                ps.setInt(i + 1, allocation.batches.get(i).id);
+            }
+            int found = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Long left = expected.get(rs.getInt("id"));
+                    if (left == null || CreditAmount.of(rs.getBigDecimal("remaining_amount")).toCents() != left) {
+                        return false;
+                    }
+                    found++;
+                }
+            }
+            return found == expected.size();
+        }
+    }
+
+    /**
+     * Transaction committed: partially consumed batches go back to the head of the queue.
+     */
+    public void commit(Allocation allocation) {
+        WalletBatches state = wallets.get(allocation.walletId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            for (int i = 0; i < allocation.batches.size(); i++) {
+                OpenBatch batch = allocation.batches.get(i);
+                long left = batch.remaining - allocation.amounts[i];
+                if (left > 0) {
+                    OpenBatch rest = new OpenBatch(batch.id, batch.issuedAt, left);
+                    state.queue.add(rest);
+                    state.byId.put(rest.id, rest);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transaction rolled back: drop the wallet's queue so it is reloaded from the database.
+     */
+    public void rollback(Allocation allocation) {
+        invalidate(allocation.walletId);
+    }
+
+    /**
+     * Register a newly issued batch (after commit). Only needed once the queue has been fully
+     * paged in; otherwise the batch is picked up by the next page load.
+     */
+    public void onBatchIssued(int walletId, int batchId, LocalDateTime issuedAt, CreditAmount amount) {
+        WalletBatches state = wallets.get(walletId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.exhausted && !state.byId.containsKey(batchId)) {
+                OpenBatch batch = new OpenBatch(batchId, issuedAt, amount.toCents());
+                state.queue.add(batch);
+                state.byId.put(batchId, batch);
+            }
+        }
+    }
+
+    public void invalidate(int walletId) {
+        wallets.remove(walletId);
+    }
+
+    private void loadNextPage(Connection conn, int walletId, WalletBatches state) throws SQLException {
+        String sql = "SELECT id, issued_at, remaining_amount FROM carbon_credit_batches " +
+                     "WHERE wallet_id = ? AND remaining_amount > 0 " +
+                     (state.lastIssuedAt != null ? "AND (issued_at > ? OR (issued_at = ? AND id > ?)) " : "") +
+                     "ORDER BY issued_at ASC, id ASC LIMIT ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setInt(i++, walletId);
+            if (state.lastIssuedAt != null) {
+                Timestamp ts = Timestamp.valueOf(state.lastIssuedAt);
+                ps.setTimestamp(i++, ts);
+                ps.setTimestamp(i++, ts);
+                ps.setInt(i++, state.lastId);
+            }
+            ps.setInt(i, PAGE_SIZE);
+            int rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    OpenBatch batch = new OpenBatch(
+                            rs.getInt("id"),
+                            rs.getTimestamp("issued_at").toLocalDateTime(),
+                            CreditAmount.of(rs.getBigDecimal("remaining_amount")).toCents());
+                    state.lastIssuedAt = batch.issuedAt;
+                    state.lastId = batch.id;
+                    if (state.byId.putIfAbsent(batch.id, batch) == null) {
+                        state.queue.add(batch);
+                    }
+                }
+            }
+            if (rows < PAGE_SIZE) {
+                state.exhausted = true;
+            }
+        }
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static class OpenBatch {
+        final int id;
+        final LocalDateTime issuedAt;
+        final long remaining;             // Hundredths of a credit
+
+        OpenBatch(int id, LocalDateTime issuedAt, long remaining) {
+            this.id = id;
+            this.issuedAt = issuedAt;
+            this.remaining = remaining;
+        }
+    }
+
+    private static class WalletBatches {
+        final PriorityQueue<OpenBatch> queue = new PriorityQueue<>(FIFO);
+        final Map<Integer, OpenBatch> byId = new HashMap<>();
+        LocalDateTime lastIssuedAt;    // Keyset position of the last loaded page
+        int lastId;
+        boolean exhausted;             // Every open batch of the wallet has been loaded
+    }
+
+    /**
+     * FIFO split of one retirement: which batches are touched and by how much.
+     */
+    public static class Allocation {
+        private final int walletId;
+        private final List<OpenBatch> batches = new ArrayList<>();
+        private long[] amounts = new long[8];  // Hundredths of a credit taken from each batch
+
+        Allocation(int walletId) {
+            this.walletId = walletId;
+        }
+
+        void add(OpenBatch batch, long amount) {
+            if (batches.size() == amounts.length) {
+                amounts = Arrays.copyOf(amounts, amounts.length * 2);
+            }
+            amounts[batches.size()] = amount;
+            batches.add(batch);
+        }
+
+        public int getBatchCount() {
+            return batches.size();
+        }
+    }
+}
@@ -5,71 +5,221 @@ import Models.CritereImpact;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CritereImpactService {
 
-    Connection conn = MyConnection.getConnection();
+    // Upper bound on the number of ids bound in one IN (...) list
+    private static final int IN_CHUNK_SIZE = 500;
+    // Rows per executeBatch (sent as one multi-row INSERT thanks to rewriteBatchedStatements)
+    private static final int BATCH_SIZE = 1_000;
 
     public void ajouter(CritereImpact c) {
-        String sql = "INSERT INTO critere_impact(nom, note, commentaire_technique, id_evaluation) VALUES (?,?,?,?)";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setString(1, c.getNom());
-            ps.setInt(2, c.getNote());
-            ps.setString(3, c.getCommentaireTechnique());
-            ps.setInt(4, c.getIdEvaluation());
-            ps.executeUpdate();
+        ajouterMany(List.of(c));
+    }
+
+    /**
+     * Insert criteria in one transaction, with batched INSERTs of BATCH_SIZE rows.
+     * The generated ids are set on the given objects.
+     * @return generated ids in input order, or an empty list if nothing was inserted (error)
+     */
+    public List<Integer> ajouterMany(List<CritereImpact> criteres) {
+        if (criteres == null || criteres.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = insertBatch(conn, criteres);
+                conn.commit();
+                for (int i = 0; i < ids.size(); i++) {
+                    criteres.get(i).setIdCritere(ids.get(i));
+                }
+                return ids;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println(ex.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Upsert criteria in one transaction: criteria with an id are updated, the others inserted
+     * (their generated ids are set on the objects).
+     * @return true if every row was written
+     */
+    public boolean enregistrerMany(List<CritereImpact> criteres) {
+        if (criteres == null || criteres.isEmpty()) {
+            return true;
+        }
+        List<CritereImpact> nouveaux = new ArrayList<>();
+        List<CritereImpact> existants = new ArrayList<>();
+        for (CritereImpact c : criteres) {
+            (c.getIdCritere() > 0 ? existants : nouveaux).add(c);
+        }
+        String sql = "UPDATE critere_impact SET nom=?, note=?, commentaire_technique=? WHERE id_critere=?";
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < existants.size(); i++) {
+                        CritereImpact c = existants.get(i);
+                        ps.setString(1, c.getNom());
+                        ps.setInt(2, c.getNote());
+                        ps.setString(3, c.getCommentaireTechnique());
+                        ps.setInt(4, c.getIdCritere());
+                        ps.addBatch();
+                        if ((i + 1) % BATCH_SIZE == 0 || i == existants.size() - 1) {
+                            ps.executeBatch();
+                        }
+                    }
+                }
+                List<Integer> ids = insertBatch(conn, nouveaux);
+                conn.commit();
+                for (int i = 0; i < ids.size(); i++) {
+                    nouveaux.get(i).setIdCritere(ids.get(i));
+                }
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
+            return false;
         }
     }
 
-    public void modifier(CritereImpact c) {
+    /**
+     * @return true if the critere exists and was updated
+     */
+    public boolean modifier(CritereImpact c) {
         String sql = "UPDATE critere_impact SET nom=?, note=?, commentaire_technique=? WHERE id_critere=?";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, c.getNom());
             ps.setInt(2, c.getNote());
             ps.setString(3, c.getCommentaireTechnique());
             ps.setInt(4, c.getIdCritere());
-            ps.executeUpdate();
+            // Matched rows: an unchanged critere still counts (useAffectedRows is off)
+            return ps.executeUpdate() > 0;
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
+            return false;
         }
     }
 
-    public void supprimer(int idCritere) {
+    /**
+     * @return true if the critere was deleted
+     */
+    public boolean supprimer(int idCritere) {
         String sql = "DELETE FROM critere_impact WHERE id_critere=?";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idCritere);
-            ps.executeUpdate();
+            return ps.executeUpdate() > 0;
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
+            return false;
         }
     }
 
     public List<CritereImpact> afficherParEvaluation(int idEvaluation) {
         List<CritereImpact> list = new ArrayList<>();
         String sql = "SELECT id_critere, nom, note, commentaire_technique, id_evaluation FROM critere_impact WHERE id_evaluation=?";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idEvaluation);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                CritereImpact c = new CritereImpact();
-                c.setIdCritere(rs.getInt("id_critere"));
-                c.setNom(rs.getString("nom"));
-                c.setNote(rs.getInt("note"));
-                c.setCommentaireTechnique(rs.getString("commentaire_technique"));
-                c.setIdEvaluation(rs.getInt("id_evaluation"));
-                list.add(c);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapCritere(rs));
+                }
             }
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
         }
         return list;
     }
+
+    /**
+     * Criteria of several evaluations in one round trip (one IN query per chunk of ids),
+     * grouped by evaluation id. Evaluations without criteria map to an empty list.
+     */
+    public Map<Integer, List<CritereImpact>> afficherParEvaluations(Collection<Integer> idEvaluations) {
+        Map<Integer, List<CritereImpact>> result = new HashMap<>();
+        if (idEvaluations == null || idEvaluations.isEmpty()) {
+            return result;
+        }
+        List<Integer> ids = new ArrayList<>(idEvaluations);
+        for (Integer id : ids) {
+            result.put(id, new ArrayList<>());
+        }
+        try (Connection conn = MyConnection.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT id_critere, nom, note, commentaire_technique, id_evaluation FROM critere_impact " +
+                             "WHERE id_evaluation IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ") " +
+                             "ORDER BY id_evaluation, id_critere";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            CritereImpact c = mapCritere(rs);
+                            result.computeIfAbsent(c.getIdEvaluation(), k -> new ArrayList<>()).add(c);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println(ex.getMessage());
+        }
+        return result;
+    }
+
+    private List<Integer> insertBatch(Connection conn, List<CritereImpact> criteres) throws SQLException {
+        List<Integer> ids = new ArrayList<>(criteres.size());
+        if (criteres.isEmpty()) {
+            return ids;
+        }
+        String sql = "INSERT INTO critere_impact(nom, note, commentaire_technique, id_evaluation) VALUES (?,?,?,?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < criteres.size(); i++) {
+                CritereImpact c = criteres.get(i);
+                ps.setString(1, c.getNom());
+                ps.setInt(2, c.getNote());
+                ps.setString(3, c.getCommentaireTechnique());
+                ps.setInt(4, c.getIdEvaluation());
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == criteres.size() - 1) {
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getInt(1));
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private CritereImpact mapCritere(ResultSet rs) throws SQLException {
+        CritereImpact c = new CritereImpact();
+        c.setIdCritere(rs.getInt("id_critere"));
+        c.setNom(rs.getString("nom"));
+        c.setNote(rs.getInt("note"));
+        c.setCommentaireTechnique(rs.getString("commentaire_technique"));
+        c.setIdEvaluation(rs.getInt("id_evaluation"));
+        return c;
+    }
 }
 
@@ -1,25 +1,34 @@
 package Services;
 
 import DataBase.MyConnection;
+import Models.CritereImpact;
 import Models.Evaluation;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EvaluationService {
 
-    Connection conn = MyConnection.getConnection();
+    // Upper bound on the number of ids bound in one IN (...) list
+    private static final int IN_CHUNK_SIZE = 500;
+
+    private final StatisticsService statistics = StatisticsService.getInstance();
 
     public void ajouter(Evaluation e) {
         String sql = "INSERT INTO evaluation(observations, score_global, decision, id_projet) VALUES (?,?,?,?)";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, e.getObservations());
             ps.setDouble(2, e.getScoreGlobal());
             ps.setString(3, e.getDecision());
             ps.setInt(4, e.getIdProjet());
             ps.executeUpdate();
+            statistics.invalidate();
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
         }
@@ -30,9 +39,9 @@ public class EvaluationService {
         String sql = "SELECT e.*, p.titre AS titre_projet FROM evaluation e " +
                 "LEFT JOIN projet p ON p.id = e.id_projet " +
                 "ORDER BY e.date_evaluation DESC";
-        try {
-            Statement st = conn.createStatement();
-            ResultSet rs = st.executeQuery(sql);
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
             while (rs.next()) {
                 Evaluation e = new Evaluation();
                 e.setIdEvaluation(rs.getInt("id_evaluation"));
@@ -51,31 +60,85 @@ public class EvaluationService {
     }
 
     public void supprimer(int id) {
-        String sqlCritere = "DELETE FROM critere_impact WHERE id_evaluation=?";
-        String sqlEvaluation = "DELETE FROM evaluation WHERE id_evaluation=?";
-        try {
-            PreparedStatement psCritere = conn.prepareStatement(sqlCritere);
-            psCritere.setInt(1, id);
-            psCritere.executeUpdate();
+        supprimerMany(List.of(id));
+    }
 
-            PreparedStatement psEval = conn.prepareStatement(sqlEvaluation);
-            psEval.setInt(1, id);
-            psEval.executeUpdate();
+    /**
+     * Delete evaluations and their criteria. Ids are handled in chunks of IN_CHUNK_SIZE: each chunk
+     * deletes its criteria then its evaluations with one IN statement each, in its own transaction,
+     * so a failure never leaves criteria without their evaluation (or the reverse) and locks stay short.
+     * @return number of evaluations deleted (chunks before a failing one stay deleted)
+     */
+    public int supprimerMany(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> list = new ArrayList<>(ids);
+        int deleted = 0;
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+                List<Integer> chunk = list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size()));
+                String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement psCritere = conn.prepareStatement(
+                             "DELETE FROM critere_impact WHERE id_evaluation IN (" + in + ")");
+                     PreparedStatement psEval = conn.prepareStatement(
+                             "DELETE FROM evaluation WHERE id_evaluation IN (" + in + ")")) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        psCritere.setInt(i + 1, chunk.get(i));
+                        psEval.setInt(i + 1, chunk.get(i));
+                    }
+                    psCritere.executeUpdate();
+                    int count = psEval.executeUpdate();
+                    conn.commit();
+                    deleted += count;
+                } catch (SQLException ex) {
+                    conn.rollback();
+                    throw ex;
+                }
+            }
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
         }
+        if (deleted > 0) {
+            statistics.invalidate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Clean-up: delete every evaluation (with its criteria) of the cancelled projets.
+     * @return number of evaluations deleted
+     */
+    public int purgerProjetsAnnules() {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT e.id_evaluation FROM evaluation e " +
+                "JOIN projet p ON p.id = e.id_projet " +
+                "WHERE p.statut = 'CANCELLED' ORDER BY e.id_evaluation";
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt("id_evaluation"));
+            }
+        } catch (SQLException ex) {
+            System.out.println(ex.getMessage());
+            return 0;
+        }
+        return supprimerMany(ids);
     }
 
     public void modifier(Evaluation e) {
         String sql = "UPDATE evaluation SET observations=?, score_global=?, decision=?, id_projet=? WHERE id_evaluation=?";
-        try {
-            PreparedStatement ps = conn.prepareStatement(sql);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, e.getObservations());
             ps.setDouble(2, e.getScoreGlobal());
             ps.setString(3, e.getDecision());
             ps.setInt(4, e.getIdProjet());
             ps.setInt(5, e.getIdEvaluation());
             ps.executeUpdate();
+            statistics.invalidate();
         } catch (SQLException ex) {
             System.out.println(ex.getMessage());
         }
@@ -88,7 +151,8 @@ public class EvaluationService {
                 "JOIN projet p ON p.id = e.id_projet " +
                 "WHERE p.entreprise_id = ? " +
                 "ORDER BY e.date_evaluation DESC";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, entrepriseId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -116,7 +180,8 @@ public class EvaluationService {
                 "JOIN projet p ON p.id = e.id_projet " +
                 "WHERE e.id_projet = ? " +
                 "ORDER BY e.date_evaluation DESC";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, projetId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -137,10 +202,60 @@ public class EvaluationService {
         return list;
     }
 
+    /**
+     * Evaluations of a projet with their criteria, in a single LEFT JOIN query.
+     * Rows are grouped in memory by evaluation, keeping the date order of the evaluations.
+     */
+    public List<Evaluation> afficherParProjetAvecCriteres(int projetId) {
+        Map<Integer, Evaluation> byId = new LinkedHashMap<>();
+        String sql = "SELECT e.*, p.titre AS titre_projet, " +
+                "c.id_critere, c.nom AS critere_nom, c.note AS critere_note, c.commentaire_technique AS critere_commentaire " +
+                "FROM evaluation e " +
+                "JOIN projet p ON p.id = e.id_projet " +
+                "LEFT JOIN critere_impact c ON c.id_evaluation = e.id_evaluation " +
+                "WHERE e.id_projet = ? " +
+                "ORDER BY e.date_evaluation DESC, e.id_evaluation, c.id_critere";
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, projetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int idEvaluation = rs.getInt("id_evaluation");
+                    Evaluation e = byId.get(idEvaluation);
+                    if (e == null) {
+                        e = new Evaluation();
+                        e.setIdEvaluation(idEvaluation);
+                        e.setDateEvaluation(rs.getTimestamp("date_evaluation"));
+                        e.setObservations(rs.getString("observations"));
+                        e.setScoreGlobal(rs.getDouble("score_global"));
+                        e.setDecision(rs.getString("decision"));
+                        e.setIdProjet(rs.getInt("id_projet"));
+                        e.setTitreProjet(rs.getString("titre_projet"));
+                        byId.put(idEvaluation, e);
+                    }
+                    int idCritere = rs.getInt("id_critere");
+                    if (!rs.wasNull()) {
+                        CritereImpact c = new CritereImpact();
+                        c.setIdCritere(idCritere);
+                        c.setNom(rs.getString("critere_nom"));
+                        c.setNote(rs.getInt("critere_note"));
+                        c.setCommentaireTechnique(rs.getString("critere_commentaire"));
+                        c.setIdEvaluation(idEvaluation);
+                        e.getCriteres().add(c);
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println(ex.getMessage());
+        }
+        return new ArrayList<>(byId.values());
+    }
+
     public java.util.Set<Integer> getProjetIdsWithEvaluations() {
         java.util.Set<Integer> ids = new java.util.HashSet<>();
         String sql = "SELECT DISTINCT id_projet FROM evaluation";
-        try (Statement st = conn.createStatement();
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             while (rs.next()) {
                 ids.add(rs.getInt("id_projet"));
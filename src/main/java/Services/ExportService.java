@@ -0,0 +1,292 @@
+package Services;
+
+import DataBase.MyConnection;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming export of wallet data to CSV or newline-delimited JSON.
+ * Rows are read from a forward-only streaming ResultSet and written one by one through a buffered
+ * FileChannel, so memory use stays constant whatever the number of rows.
+ */
+public class ExportService {
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+    private static final int PROGRESS_EVERY_ROWS = 1_000;
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Dataset {
+        WALLETS("wallet", null),
+        BATCHES("carbon_credit_batches", "issued_at"),
+        TRANSACTIONS("wallet_transactions", "created_at");
+
+        private final String table;
+        private final String walletOrderColumn;  // Ordering used with a wallet filter (matches the wallet indexes)
+
+        Dataset(String table, String walletOrderColumn) {
+            this.table = table;
+            this.walletOrderColumn = walletOrderColumn;
+        }
+
+        public String getTable() {
+            return table;
+        }
+    }
+
+    /**
+     * Number of rows an export will write (used to scale the progress bar).
+     */
+    public long count(Dataset dataset, Integer walletId) {
+        String sql = "SELECT COUNT(*) FROM " + dataset.table + whereClause(dataset, walletId);
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (walletId != null) {
+                ps.setInt(1, walletId);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error counting export rows: " + ex.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Export a dataset (optionally restricted to one wallet) to a file.
+     * @param progress   called with the number of rows written so far, every thousand rows
+     * @param cancelled  polled between rows; the export stops early when it returns true
+     * @return number of rows written
+     * When the export is cancelled or fails, the partial file is deleted once the writer is closed.
+     */
+    public long export(Dataset dataset, Integer walletId, Path target, Format format, boolean gzip,
+                       LongConsumer progress, BooleanSupplier cancelled) throws SQLException, IOException {
+        String sql = "SELECT * FROM " + dataset.table + whereClause(dataset, walletId) + orderClause(dataset, walletId);
+        long rows = 0;
+        boolean aborted = false;
+        boolean opened = false;
+        boolean complete = false;
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // The connection is held for the whole stream, however long it takes
+            MyConnection.getPool().markLongRunning(conn);
+            // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (walletId != null) {
+                ps.setInt(1, walletId);
+            }
+            try (ResultSet rs = ps.executeQuery();
+                 Writer out = openWriter(target, gzip)) {
+                opened = true;
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                String[] labels = new String[columns];
+                int[] types = new int[columns];
+                for (int i = 0; i < columns; i++) {
+                    labels[i] = meta.getColumnLabel(i + 1);
+                    types[i] = meta.getColumnType(i + 1);
+                }
+                if (format == Format.CSV) {
+                    writeCsvHeader(out, labels);
+                }
+                while (rs.next()) {
+                    if (cancelled != null && cancelled.getAsBoolean()) {
+                        // Closing a streaming result drains every remaining row; kill the query instead
+                        aborted = true;
+                        ps.cancel();
+                        break;
+                    }
+                    if (format == Format.CSV) {
+                        writeCsvRow(out, rs, types);
+                    } else {
+                        writeJsonRow(out, rs, labels, types);
+                    }
+                    rows++;
+                    if (progress != null && rows % PROGRESS_EVERY_ROWS == 0) {
+                        progress.accept(rows);
+                    }
+                }
+            }
+            // Set only once the writer has closed, so a failed final flush still counts as incomplete
+            complete = !aborted;
+        } catch (SQLException ex) {
+            if (!aborted) {
+                throw ex;
+            }
+        } finally {
+            if (opened && !complete) {
+                deletePartial(target);
+            }
+        }
+        if (progress != null) {
+            progress.accept(rows);
+        }
+        return rows;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private String whereClause(Dataset dataset, Integer walletId) {
+        if (walletId == null) {
+            return "";
+        }
+        return dataset == Dataset.WALLETS ? " WHERE id = ?" : " WHERE wallet_id = ?";
+    }
+
+    private String orderClause(Dataset dataset, Integer walletId) {
+        if (walletId != null && dataset.walletOrderColumn != null) {
+            return " ORDER BY " + dataset.walletOrderColumn + ", id";
+        }
+        return " ORDER BY id";
+    }
+
+    private void deletePartial(Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException ex) {
+            System.out.println("Impossible de supprimer l'export partiel: " + ex.getMessage());
+        }
+    }
+
+    private Writer openWriter(Path target, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream stream = Channels.newOutputStream(channel);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, WRITE_BUFFER_CHARS);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+    }
+
+    private void writeCsvHeader(Writer out, String[] labels) throws IOException {
+        for (int i = 0; i < labels.length; i++) {
+            if (i > 0) out.write(',');
+            writeCsvField(out, labels[i]);
+        }
+        out.write('\n');
+    }
+
+    private void writeCsvRow(Writer out, ResultSet rs, int[] types) throws SQLException, IOException {
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) out.write(',');
+            String value = formatValue(rs, i + 1, types[i]);
+            if (value != null) {
+                writeCsvField(out, value);
+            }
+        }
+        out.write('\n');
+    }
+
+    private void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private void writeJsonRow(Writer out, ResultSet rs, String[] labels, int[] types) throws SQLException, IOException {
+        out.write('{');
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) out.write(',');
+            writeJsonString(out, labels[i]);
+            out.write(':');
+            String value = formatValue(rs, i + 1, types[i]);
+            if (value == null) {
+                out.write("null");
+            } else if (isNumeric(types[i])) {
+                out.write(value);
+            } else {
+                writeJsonString(out, value);
+            }
+        }
+        out.write("}\n");
+    }
+
+    private void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    private String formatValue(ResultSet rs, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                BigDecimal decimal = rs.getBigDecimal(column);
+                return decimal == null ? null : decimal.toPlainString();
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                Timestamp ts = rs.getTimestamp(column);
+                return ts == null ? null : ts.toLocalDateTime().toString();
+            default:
+                return rs.getString(column);
+        }
+    }
+
+    private boolean isNumeric(int type) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
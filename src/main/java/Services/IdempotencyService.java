@@ -0,0 +1,139 @@
+package Services;
+
+import DataBase.MyConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request-id deduplication for credit operations.
+ * A credit operation called with a client request id claims it in wallet_operation_requests inside
+ * its own transaction, so an id is recorded if and only if the operation commits. A replay of a
+ * recorded id hits the primary key (or waits for the first attempt to finish) and is answered with the
+ * original success instead of running again. Attempts that did not commit, whether they failed on an
+ * error or were rejected on their merits (insufficient credits), leave no record and can be retried
+ * with the same id, e.g. once funds have arrived.
+ * Each id is stored with a fingerprint of the whole request (operation, wallets, amount, reference):
+ * reusing an id for a different request is a conflict, never a replay.
+ * Recently committed ids are also kept in a small in-memory LRU, so a double click or an immediate
+ * retry is answered without touching the database.
+ */
+public class IdempotencyService {
+
+    private static final int RECENT_CAPACITY = 4_096;
+    private static final IdempotencyService instance = new IdempotencyService();
+
+    public enum Claim {
+        NEW,        // First attempt: go ahead with the operation
+        SUCCEEDED,  // Already committed with the same request
+        CONFLICT    // Id already used by a different request
+    }
+
+    // requestId -> request fingerprint, access ordered (LRU)
+    private final Map<String, String> recent = new LinkedHashMap<String, String>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > RECENT_CAPACITY;
+        }
+    };
+
+    private IdempotencyService() {}
+
+    public static IdempotencyService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Fingerprint of a request: SHA-256 over the operation and every argument that changes its effect.
+     */
+    public String fingerprint(String operation, Object... arguments) {
+        StringBuilder request = new StringBuilder(operation);
+        for (Object argument : arguments) {
+            // Unit separator: cannot be confused with the content of a reference note
+            request.append('\u001f').append(argument);
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(request.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * In-memory front check, before any database work.
+     * @return SUCCEEDED or CONFLICT when the id was recently committed, null when unknown here
+     */
+    public Claim checkRecent(String requestId, String fingerprint) {
+        String recorded;
+        synchronized (recent) {
+            recorded = recent.get(requestId);
+        }
+        if (recorded == null) {
+            return null;
+        }
+        return recorded.equals(fingerprint) ? Claim.SUCCEEDED : Claim.CONFLICT;
+    }
+
+    /**
+     * Claim a request id inside the caller's transaction (call it before moving any credits).
+     * A concurrent attempt with the same id blocks on the key until the first one commits or rolls back.
+     */
+    public Claim claim(Connection conn, String requestId, String operation, int walletId, String fingerprint) throws SQLException {
+        String sql = "INSERT INTO wallet_operation_requests (request_id, operation, wallet_id, fingerprint) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, requestId);
+            ps.setString(2, operation);
+            ps.setInt(3, walletId);
+            ps.setString(4, fingerprint);
+            ps.executeUpdate();
+            return Claim.NEW;
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            // Already committed: only the very same request is answered with the original success
+            String select = "SELECT fingerprint FROM wallet_operation_requests WHERE request_id = ?";
+            try (PreparedStatement ps = conn.prepareStatement(select)) {
+                ps.setString(1, requestId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getString("fingerprint").equals(fingerprint)) {
+                        remember(requestId, fingerprint);
+                        return Claim.SUCCEEDED;
+                    }
+                }
+            }
+            return Claim.CONFLICT;
+        }
+    }
+
+    /**
+     * Record a committed request in the front check.
+     */
+    public void remember(String requestId, String fingerprint) {
+        synchronized (recent) {
+            recent.put(requestId, fingerprint);
+        }
+    }
+
+    /**
+     * Delete request ids older than the given number of days (retries never come that late).
+     */
+    public int purgeOlderThan(int days) {
+        String sql = "DELETE FROM wallet_operation_requests WHERE created_at < NOW() - INTERVAL ? DAY";
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, days);
+            return ps.executeUpdate();
+        } catch (SQLException ex) {
+            System.out.println("Error purging operation requests: " + ex.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package Services;
+
+import DataBase.MyConnection;
+import Models.CreditAmount;
+import Models.LedgerBalance;
+import Models.LedgerEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only credit ledger.
+ * Every credit movement is written as an immutable event in the same transaction as the balance
+ * update. Events are numbered per wallet by wallet.ledger_seq, which is incremented under the wallet
+ * row lock, so a wallet's committed events always form a gap-free prefix 1..N.
+ * Every SNAPSHOT_INTERVAL events a snapshot of the folded balances is stored, so deriving a wallet's
+ * balances reads the latest snapshot plus at most SNAPSHOT_INTERVAL tail events.
+ */
+public class LedgerService {
+
+    private static final long SNAPSHOT_INTERVAL = 1_000;
+    private static final LedgerService instance = new LedgerService();
+
+    private ScheduledExecutorService verifier;
+
+    private LedgerService() {}
+
+    public static LedgerService getInstance() {
+        return instance;
+    }
+
+    // ==================== APPEND ====================
+
+    /**
+     * Append one event inside the caller's transaction.
+     */
+    public void append(Connection conn, LedgerEvent event) throws SQLException {
+        append(conn, List.of(event));
+    }
+
+    /**
+     * Append events inside the caller's transaction, reserving sequence numbers per wallet
+     * (in wallet id order, like the balance updates) and writing the events with one JDBC batch.
+     */
+    public void append(Connection conn, List<LedgerEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (LedgerEvent event : events) {
+            counts.merge(event.getWalletId(), 1, Integer::sum);
+        }
+
+        // 1. Reserve a range of sequence numbers per wallet
+        Map<Integer, Long> nextSeq = new HashMap<>();
+        Set<Integer> snapshotDue = new TreeSet<>();
+        String reserve = "UPDATE wallet SET ledger_seq = LAST_INSERT_ID(ledger_seq + ?) WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(reserve);
+             Statement st = conn.createStatement()) {
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                ps.setInt(1, entry.getValue());
+                ps.setInt(2, entry.getKey());
+                if (ps.executeUpdate() == 0) {
+                    throw new SQLException("Wallet not found for ledger event: " + entry.getKey());
+                }
+                long last;
+                try (ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    rs.next();
+                    last = rs.getLong(1);
+                }
+                long first = last - entry.getValue() + 1;
+                nextSeq.put(entry.getKey(), first);
+                if (last / SNAPSHOT_INTERVAL > (first - 1) / SNAPSHOT_INTERVAL) {
+                    snapshotDue.add(entry.getKey());
+                }
+            }
+        }
+
+        // 2. Events
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String insert = "INSERT INTO wallet_ledger_events (wallet_id, seq, type, available_delta, retired_delta, batch_id, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(insert)) {
+            for (LedgerEvent event : events) {
+                long seq = nextSeq.merge(event.getWalletId(), 1L, Long::sum) - 1;
+                event.setSeq(seq);
+                event.setCreatedAt(now.toLocalDateTime());
+                ps.setInt(1, event.getWalletId());
+                ps.setLong(2, seq);
+                ps.setString(3, event.getType());
+                ps.setBigDecimal(4, event.getAvailableDelta().toBigDecimal());
+                ps.setBigDecimal(5, event.getRetiredDelta().toBigDecimal());
+                ps.setObject(6, event.getBatchId());
+                ps.setTimestamp(7, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        // 3. Snapshots crossing an interval boundary, still under the wallet row locks
+        for (int walletId : snapshotDue) {
+            takeSnapshot(conn, walletId);
+        }
+    }
+
+    // ==================== DERIVED BALANCES ====================
+
+    /**
+     * Balances of a wallet folded from its ledger (latest snapshot + tail events).
+     */
+    public LedgerBalance deriveBalance(int walletId) {
+        try (Connection conn = MyConnection.getConnection()) {
+            return derive(conn, walletId);
+        } catch (SQLException ex) {
+            System.out.println("Error deriving ledger balance: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Events of a wallet after a given sequence number, in order (for audits and replays).
+     */
+    public List<LedgerEvent> getEvents(int walletId, long afterSeq, int limit) {
+        List<LedgerEvent> events = new ArrayList<>();
+        String sql = "SELECT * FROM wallet_ledger_events WHERE wallet_id = ? AND seq > ? ORDER BY seq LIMIT ?";
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, walletId);
+            ps.setLong(2, afterSeq);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    LedgerEvent event = new LedgerEvent();
+                    event.setId(rs.getLong("id"));
+                    event.setWalletId(rs.getInt("wallet_id"));
+                    event.setSeq(rs.getLong("seq"));
+                    event.setType(rs.getString("type"));
+                    event.setAvailableDelta(CreditAmount.of(rs.getBigDecimal("available_delta")));
+                    event.setRetiredDelta(CreditAmount.of(rs.getBigDecimal("retired_delta")));
+                    event.setBatchId((Integer) rs.getObject("batch_id"));
+                    event.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    events.add(event);
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error fetching ledger events: " + ex.getMessage());
+        }
+        return events;
+    }
+
+    /**
+     * Store a snapshot of a wallet's folded balances now (e.g. before archiving old events).
+     */
+    public boolean snapshot(int walletId) {
+        try (Connection conn = MyConnection.getConnection()) {
+            takeSnapshot(conn, walletId);
+            return true;
+        } catch (SQLException ex) {
+            System.out.println("Error taking ledger snapshot: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== VERIFICATION / RECOVERY ====================
+
+    /**
+     * Compare the stored balances of every wallet with the balances derived from the ledger.
+     * Each wallet is checked in its own read-only transaction so both reads see the same data.
+     *
+     * @return ids of the wallets whose stored balances differ from the ledger
+     */
+    public List<Integer> verifyAll() {
+        List<Integer> mismatches = new ArrayList<>();
+        List<Integer> walletIds = new ArrayList<>();
+        try (Connection conn = MyConnection.getConnection()) {
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id FROM wallet ORDER BY id")) {
+                while (rs.next()) {
+                    walletIds.add(rs.getInt(1));
+                }
+            }
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            try {
+                for (int walletId : walletIds) {
+                    if (!verify(conn, walletId)) {
+                        mismatches.add(walletId);
+                    }
+                    conn.commit();
+                }
+            } finally {
+                conn.setReadOnly(false);
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error verifying ledger: " + ex.getMessage());
+        }
+        System.out.println("Ledger verification: " + walletIds.size() + " wallets, " + mismatches.size() + " mismatches");
+        return mismatches;
+    }
+
+    /**
+     * Reset a wallet's stored balances to the values derived from its ledger (recovery after a crash
+     * or a manual edit). Runs under the wallet lock and the wallet row lock.
+     */
+    public boolean rebuildWallet(int walletId) {
+        WalletLockManager lockManager = WalletLockManager.getInstance();
+        lockManager.lock(walletId);
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM wallet WHERE id = ? FOR UPDATE")) {
+                    ps.setInt(1, walletId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            return false;
+                        }
+                    }
+                }
+                LedgerBalance balance = derive(conn, walletId);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE wallet SET available_credits = ?, retired_credits = ? WHERE id = ?")) {
+                    ps.setBigDecimal(1, balance.getAvailableCredits().toBigDecimal());
+                    ps.setBigDecimal(2, balance.getRetiredCredits().toBigDecimal());
+                    ps.setInt(3, walletId);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+                WalletCache.getInstance().invalidate(walletId);
+                BatchAllocator.getInstance().invalidate(walletId);
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error rebuilding wallet from ledger: " + ex.getMessage());
+            return false;
+        } finally {
+            lockManager.unlock(walletId);
+        }
+    }
+
+    /**
+     * Run {@link #verifyAll()} periodically on a background daemon thread.
+     */
+    public synchronized void startVerificationJob(long initialDelayMinutes, long periodMinutes) {
+        if (verifier != null) {
+            return;
+        }
+        verifier = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ledger-verifier");
+            t.setDaemon(true);
+            return t;
+        });
+        verifier.scheduleWithFixedDelay(() -> {
+            List<Integer> mismatches = verifyAll();
+            if (!mismatches.isEmpty()) {
+                System.out.println("Ledger mismatch on wallets " + mismatches);
+            }
+        }, initialDelayMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stopVerificationJob() {
+        if (verifier != null) {
+            verifier.shutdownNow();
+            verifier = null;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private boolean verify(Connection conn, int walletId) throws SQLException {
+        CreditAmount available;
+        CreditAmount retired;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT available_credits, retired_credits FROM wallet WHERE id = ?")) {
+            ps.setInt(1, walletId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return true;   // deleted meanwhile
+                }
+                available = CreditAmount.of(rs.getBigDecimal("available_credits"));
+                retired = CreditAmount.of(rs.getBigDecimal("retired_credits"));
+            }
+        }
+        LedgerBalance derived = derive(conn, walletId);
+        if (derived.getAvailableCredits().equals(available) && derived.getRetiredCredits().equals(retired)) {
+            return true;
+        }
+        System.out.println("Ledger mismatch for wallet " + walletId + ": stored " + available + "/" + retired +
+                           ", derived " + derived.getAvailableCredits() + "/" + derived.getRetiredCredits());
+        return false;
+    }
+
+    private LedgerBalance derive(Connection conn, int walletId) throws SQLException {
+        long snapshotSeq = 0;
+        CreditAmount available = CreditAmount.ZERO;
+        CreditAmount retired = CreditAmount.ZERO;
+        String snapshotSql = "SELECT seq, available_credits, retired_credits FROM wallet_ledger_snapshots " +
+                             "WHERE wallet_id = ? ORDER BY seq DESC LIMIT 1";
+        try (PreparedStatement ps = conn.prepareStatement(snapshotSql)) {
+            ps.setInt(1, walletId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    snapshotSeq = rs.getLong("seq");
+                    available = CreditAmount.of(rs.getBigDecimal("available_credits"));
+                    retired = CreditAmount.of(rs.getBigDecimal("retired_credits"));
+                }
+            }
+        }
+
+        // Fold the tail on the server: only the sums travel back
+        String tailSql = "SELECT COUNT(*) AS events, COALESCE(SUM(available_delta), 0) AS available_delta, " +
+                         "COALESCE(SUM(retired_delta), 0) AS retired_delta, COALESCE(MAX(seq), ?) AS last_seq " +
+                         "FROM wallet_ledger_events WHERE wallet_id = ? AND seq > ?";
+        try (PreparedStatement ps = conn.prepareStatement(tailSql)) {
+            ps.setLong(1, snapshotSeq);
+            ps.setInt(2, walletId);
+            ps.setLong(3, snapshotSeq);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new LedgerBalance(walletId, rs.getLong("last_seq"),
+                        available.plus(CreditAmount.of(rs.getBigDecimal("available_delta"))),
+                        retired.plus(CreditAmount.of(rs.getBigDecimal("retired_delta"))),
+                        rs.getLong("events"));
+            }
+        }
+    }
+
+    private void takeSnapshot(Connection conn, int walletId) throws SQLException {
+        LedgerBalance balance = derive(conn, walletId);
+        String sql = "INSERT IGNORE INTO wallet_ledger_snapshots (wallet_id, seq, available_credits, retired_credits, created_at) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, walletId);
+            ps.setLong(2, balance.getSeq());
+            ps.setBigDecimal(3, balance.getAvailableCredits().toBigDecimal());
+            ps.setBigDecimal(4, balance.getRetiredCredits().toBigDecimal());
+            ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            ps.executeUpdate();
+        }
+    }
+}
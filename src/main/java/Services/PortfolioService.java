@@ -0,0 +1,300 @@
+package Services;
+
+import DataBase.MyConnection;
+import Models.CreditAmount;
+import Models.IssueOrder;
+import Models.PortfolioSummary;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materialized portfolio figures (issued, retired, transferred) per owner type and project.
+ * Every WalletService movement folds its amount into portfolio_summary inside its own transaction,
+ * so dashboards read a handful of rows instead of scanning wallet_transactions.
+ * Each (owner type, project) pair is split over SLOTS rows picked by wallet id, so concurrent
+ * movements of different wallets rarely wait on the same summary row; reads add the slots up.
+ * Incoming transfers are not folded (a transfer is counted once, on the sending side).
+ * rebuild() recomputes the table from wallet_transactions, slot by slot, and runs periodically to repair drift.
+ */
+public class PortfolioService {
+
+    private static final int SLOTS = 16;
+    private static final String UPSERT_SET =
+            "movements = movements + VALUES(movements), issued = issued + VALUES(issued), " +
+            "retired = retired + VALUES(retired), transferred = transferred + VALUES(transferred)";
+    private static final PortfolioService instance = new PortfolioService();
+
+    private ScheduledExecutorService rebuilder;
+
+    private PortfolioService() {}
+
+    public static PortfolioService getInstance() {
+        return instance;
+    }
+
+    // ==================== INCREMENTAL MAINTENANCE ====================
+
+    /**
+     * Fold one movement into the summary inside the caller's transaction.
+     * The owner type is read from the wallet row and the project from the batch, in the same statement.
+     */
+    public void record(Connection conn, int walletId, Integer batchId, String type, CreditAmount amount) throws SQLException {
+        CreditAmount[] deltas = deltas(type, amount);
+        if (deltas == null) {
+            return;
+        }
+        String sql = "INSERT INTO portfolio_summary (owner_type, project_id, slot, movements, issued, retired, transferred) " +
+                     "SELECT w.owner_type, COALESCE((SELECT b.project_id FROM carbon_credit_batches b WHERE b.id = ?), 0), " +
+                     "?, 1, ?, ?, ? FROM wallet w WHERE w.id = ? " +
+                     "ON DUPLICATE KEY UPDATE " + UPSERT_SET;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, batchId);
+            ps.setInt(2, slot(walletId));
+            ps.setBigDecimal(3, deltas[0].toBigDecimal());
+            ps.setBigDecimal(4, deltas[1].toBigDecimal());
+            ps.setBigDecimal(5, deltas[2].toBigDecimal());
+            ps.setInt(6, walletId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Fold a chunk of bulk issues into the summary inside the caller's transaction.
+     * Orders are grouped per summary row and written in key order, so concurrent chunks
+     * always lock summary rows in the same order.
+     */
+    public void recordIssues(Connection conn, List<IssueOrder> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> ownerTypes = ownerTypes(conn, orders);
+        Map<String, PortfolioSummary> rows = new TreeMap<>();
+        Map<String, Integer> slots = new HashMap<>();
+        for (IssueOrder order : orders) {
+            String ownerType = ownerTypes.get(order.getWalletId());
+            if (ownerType == null) {
+                continue;   // wallet missing: its balance update failed too
+            }
+            int slot = slot(order.getWalletId());
+            String key = ownerType + "|" + String.format("%010d|%02d", order.getProjectId(), slot);
+            PortfolioSummary row = rows.computeIfAbsent(key, k -> new PortfolioSummary(ownerType, order.getProjectId()));
+            row.setMovements(row.getMovements() + 1);
+            row.setIssued(row.getIssued().plus(order.getAmount()));
+            slots.put(key, slot);
+        }
+
+        String sql = "INSERT INTO portfolio_summary (owner_type, project_id, slot, movements, issued, retired, transferred) " +
+                     "VALUES (?, ?, ?, ?, ?, 0, 0) ON DUPLICATE KEY UPDATE " + UPSERT_SET;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<String, PortfolioSummary> entry : rows.entrySet()) {
+                PortfolioSummary row = entry.getValue();
+                ps.setString(1, row.getOwnerType());
+                ps.setInt(2, row.getProjectId());
+                ps.setInt(3, slots.get(entry.getKey()));
+                ps.setLong(4, row.getMovements());
+                ps.setBigDecimal(5, row.getIssued().toBigDecimal());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Figures per owner type and project (slots added up). Totals are rolled up with PortfolioSummary.add.
+     */
+    public List<PortfolioSummary> getSummary() {
+        List<PortfolioSummary> rows = new ArrayList<>();
+        String sql = "SELECT owner_type, project_id, SUM(movements) AS movements, SUM(issued) AS issued, " +
+                     "SUM(retired) AS retired, SUM(transferred) AS transferred " +
+                     "FROM portfolio_summary GROUP BY owner_type, project_id ORDER BY owner_type, project_id";
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                PortfolioSummary row = new PortfolioSummary(rs.getString("owner_type"), rs.getInt("project_id"));
+                row.setMovements(rs.getLong("movements"));
+                row.setIssued(CreditAmount.of(rs.getBigDecimal("issued")));
+                row.setRetired(CreditAmount.of(rs.getBigDecimal("retired")));
+                row.setTransferred(CreditAmount.of(rs.getBigDecimal("transferred")));
+                rows.add(row);
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error reading portfolio summary: " + ex.getMessage());
+        }
+        return rows;
+    }
+
+    // ==================== REBUILD ====================
+
+    /**
+     * Recompute the whole table from wallet_transactions, one slot per short transaction.
+     * No wallet is locked: only the summary rows of the slot being rebuilt (and the gaps where new rows
+     * of that slot would go) are, so only movements of wallets in that slot wait, and only for one slot.
+     * @return true if every slot was rebuilt
+     */
+    public boolean rebuild() {
+        boolean rebuilt = true;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            rebuilt &= rebuildSlot(slot);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Replace the summary rows of one slot.
+     * A movement inserts its wallet_transactions row before folding into the summary, in one transaction.
+     * The slot's summary rows are locked first, so the totals read next (consistent read, whose snapshot
+     * is taken after the locks) include every movement already folded, and a movement still in flight
+     * blocks on its summary row and folds on top of the rebuilt one once this transaction commits.
+     */
+    private boolean rebuildSlot(int slot) {
+        String aggregate = "SELECT w.owner_type, COALESCE(b.project_id, 0) AS project_id, COUNT(*) AS movements, " +
+                           "SUM(CASE WHEN t.type = 'ISSUE' THEN t.amount ELSE 0 END) AS issued, " +
+                           "SUM(CASE WHEN t.type = 'RETIRE' THEN t.amount ELSE 0 END) AS retired, " +
+                           "SUM(CASE WHEN t.type = 'TRANSFER_OUT' THEN t.amount ELSE 0 END) AS transferred " +
+                           "FROM wallet w " +
+                           "JOIN wallet_transactions t ON t.wallet_id = w.id " +
+                           "LEFT JOIN carbon_credit_batches b ON b.id = t.batch_id " +
+                           "WHERE w.id % " + SLOTS + " = ? AND t.type <> 'TRANSFER_IN' " +
+                           "GROUP BY w.owner_type, COALESCE(b.project_id, 0)";
+        String insert = "INSERT INTO portfolio_summary (owner_type, project_id, slot, movements, issued, retired, transferred) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // 1. Lock the slot (rows in key order, like recordIssues, and the gaps for new rows)
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT owner_type FROM portfolio_summary WHERE slot = ? ORDER BY slot, owner_type, project_id FOR UPDATE")) {
+                    ps.setInt(1, slot);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            // Locks are taken as rows are read
+                        }
+                    }
+                }
+
+                // 2. Totals of the slot's wallets
+                List<PortfolioSummary> rows = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(aggregate)) {
+                    ps.setInt(1, slot);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            PortfolioSummary row = new PortfolioSummary(rs.getString("owner_type"), rs.getInt("project_id"));
+                            row.setMovements(rs.getLong("movements"));
+                            row.setIssued(CreditAmount.of(rs.getBigDecimal("issued")));
+                            row.setRetired(CreditAmount.of(rs.getBigDecimal("retired")));
+                            row.setTransferred(CreditAmount.of(rs.getBigDecimal("transferred")));
+                            rows.add(row);
+                        }
+                    }
+                }
+
+                // 3. Replace the slot's rows
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM portfolio_summary WHERE slot = ?")) {
+                    ps.setInt(1, slot);
+                    ps.executeUpdate();
+                }
+                if (!rows.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(insert)) {
+                        for (PortfolioSummary row : rows) {
+                            ps.setString(1, row.getOwnerType());
+                            ps.setInt(2, row.getProjectId());
+                            ps.setInt(3, slot);
+                            ps.setLong(4, row.getMovements());
+                            ps.setBigDecimal(5, row.getIssued().toBigDecimal());
+                            ps.setBigDecimal(6, row.getRetired().toBigDecimal());
+                            ps.setBigDecimal(7, row.getTransferred().toBigDecimal());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error rebuilding portfolio summary slot " + slot + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized void startRebuildJob(long initialDelayMinutes, long periodMinutes) {
+        if (rebuilder != null) {
+            return;
+        }
+        rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "portfolio-rebuilder");
+            t.setDaemon(true);
+            return t;
+        });
+        rebuilder.scheduleWithFixedDelay(this::rebuild, initialDelayMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stopRebuildJob() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+            rebuilder = null;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * {issued, retired, transferred} deltas of a movement, or null when it is not folded.
+     */
+    private CreditAmount[] deltas(String type, CreditAmount amount) {
+        switch (type) {
+            case "ISSUE":
+                return new CreditAmount[]{amount, CreditAmount.ZERO, CreditAmount.ZERO};
+            case "RETIRE":
+                return new CreditAmount[]{CreditAmount.ZERO, amount, CreditAmount.ZERO};
+            case "TRANSFER_OUT":
+                return new CreditAmount[]{CreditAmount.ZERO, CreditAmount.ZERO, amount};
+            default:
+                return null;
+        }
+    }
+
+    private Map<Integer, String> ownerTypes(Connection conn, List<IssueOrder> orders) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(orders.stream().map(IssueOrder::getWalletId).toList()));
+        StringBuilder sql = new StringBuilder("SELECT id, owner_type FROM wallet WHERE id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        Map<Integer, String> ownerTypes = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ownerTypes.put(rs.getInt("id"), rs.getString("owner_type"));
+                }
+            }
+        }
+        return ownerTypes;
+    }
+
+    private int slot(int walletId) {
+        return Math.floorMod(walletId, SLOTS);
+    }
+}
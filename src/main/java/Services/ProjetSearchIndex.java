@@ -0,0 +1,478 @@
+package Services;
+
+import DataBase.MyConnection;
+import Models.Projet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over projet titles, descriptions and company email/address.
+ * Built once from the database (lazily, or ahead of time with {@link #ensureLoaded}) and kept in sync
+ * by ProjetService after each successful write. Terms are accent- and case-folded; every query term
+ * matches as a word or as a word prefix, all terms must match (AND), and hits are ranked by a
+ * saturated, field-weighted term frequency times inverse document frequency.
+ * Cancelled projets stay indexed but are left out of results.
+ */
+public class ProjetSearchIndex {
+
+    private static final int TITRE = 0, DESCRIPTION = 1, EMAIL = 2, ADDRESS = 3;
+    private static final float[] FIELD_WEIGHTS = {3.0f, 1.0f, 2.0f, 1.0f};
+    private static final float SATURATION = 1.2f;      // tf / (tf + SATURATION)
+    private static final float PREFIX_FACTOR = 0.7f;    // Prefix matches rank below whole words
+    private static final int MAX_EXPANSIONS = 64;       // Indexed terms a single prefix may expand to
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final ProjetSearchIndex instance = new ProjetSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> projets containing it; sorted so the terms sharing a prefix are a sub-map
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private volatile boolean loaded;
+
+    private ProjetSearchIndex() {}
+
+    public static ProjetSearchIndex getInstance() {
+        return instance;
+    }
+
+    // ==================== SEARCH ====================
+
+    /**
+     * Ids of the best matching projets, best first (empty for a blank query).
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            List<TermMatch> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermMatch match = match(term);
+                if (match.estimate == 0) {
+                    return Collections.emptyList();
+                }
+                matches.add(match);
+            }
+            // Intersect the id-sorted matches, starting from the rarest term
+            matches.sort((a, b) -> Integer.compare(a.estimate, b.estimate));
+            int[] ids = null;
+            float[] scores = null;
+            int count = 0;
+            for (TermMatch match : matches) {
+                match.merge();
+                if (ids == null) {
+                    ids = match.ids;
+                    scores = match.scores;
+                    count = match.size;
+                } else {
+                    count = intersect(ids, scores, count, match);
+                }
+                if (count == 0) {
+                    return Collections.emptyList();
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1);
+            for (int i = 0; i < count; i++) {
+                Doc doc = docs.get(ids[i]);
+                if (doc == null || doc.cancelled) {
+                    continue;
+                }
+                top.add(new Hit(ids[i], scores[i]));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().id);
+            }
+            Collections.reverse(ranked);
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keep the projets of a list whose id is in ranked ids, in ranking order.
+     */
+    public static List<Projet> inRankOrder(List<Projet> projets, List<Integer> rankedIds) {
+        Map<Integer, Projet> byId = new HashMap<>();
+        for (Projet projet : projets) {
+            byId.put(projet.getId(), projet);
+        }
+        List<Projet> ranked = new ArrayList<>(rankedIds.size());
+        for (int id : rankedIds) {
+            Projet projet = byId.get(id);
+            if (projet != null) {
+                ranked.add(projet);
+            }
+        }
+        return ranked;
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Build the index from the database if it has not been built yet.
+     * Writes arriving meanwhile wait for the build, so none of them is lost.
+     */
+    public void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            String sql = "SELECT id, titre, description, statut, company_address, company_email FROM projet";
+            try (Connection cnx = MyConnection.getConnection();
+                 PreparedStatement ps = cnx.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Stream the rows instead of buffering the whole table
+                ps.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Doc doc = new Doc();
+                        doc.fields[TITRE] = toArray(tokenize(rs.getString("titre")));
+                        doc.fields[DESCRIPTION] = toArray(tokenize(rs.getString("description")));
+                        doc.fields[EMAIL] = toArray(tokenize(rs.getString("company_email")));
+                        doc.fields[ADDRESS] = toArray(tokenize(rs.getString("company_address")));
+                        doc.cancelled = isCancelled(rs.getString("statut"));
+                        put(rs.getInt("id"), doc);
+                    }
+                }
+                loaded = true;
+                System.out.println("Index de recherche projets: " + docs.size() + " projets, " + postings.size() + " termes");
+            } catch (SQLException e) {
+                postings.clear();
+                docs.clear();
+                System.out.println("Erreur index recherche projets: " + e.getMessage());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a new projet or replace every field of an existing one.
+     */
+    public void index(Projet p) {
+        Doc doc = new Doc();
+        doc.fields[TITRE] = toArray(tokenize(p.getTitre()));
+        doc.fields[DESCRIPTION] = toArray(tokenize(p.getDescription()));
+        doc.fields[EMAIL] = toArray(tokenize(p.getCompanyEmail()));
+        doc.fields[ADDRESS] = toArray(tokenize(p.getCompanyAddress()));
+        doc.cancelled = isCancelled(p.getStatut());
+        write(() -> {
+            remove(p.getId());
+            put(p.getId(), doc);
+        });
+    }
+
+    /**
+     * Replace the description and company fields, keeping the indexed title.
+     */
+    public void updateDetails(int id, String description, String address, String email) {
+        String[] descriptionTerms = toArray(tokenize(description));
+        String[] addressTerms = toArray(tokenize(address));
+        String[] emailTerms = toArray(tokenize(email));
+        write(() -> {
+            Doc old = remove(id);
+            if (old == null) {
+                return;
+            }
+            Doc doc = new Doc();
+            doc.fields[TITRE] = old.fields[TITRE];
+            doc.fields[DESCRIPTION] = descriptionTerms;
+            doc.fields[EMAIL] = emailTerms;
+            doc.fields[ADDRESS] = addressTerms;
+            doc.cancelled = old.cancelled;
+            put(id, doc);
+        });
+    }
+
+    public void setStatut(int id, String statut) {
+        write(() -> {
+            Doc doc = docs.get(id);
+            if (doc != null) {
+                doc.cancelled = isCancelled(statut);
+            }
+        });
+    }
+
+    public void delete(int id) {
+        write(() -> remove(id));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Apply a change under the write lock. Before the first build there is nothing to update:
+     * the build will read the change from the database.
+     */
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(int id, Doc doc) {
+        docs.put(id, doc);
+        for (int field = 0; field < doc.fields.length; field++) {
+            for (String term : doc.fields[field]) {
+                postings.computeIfAbsent(term, t -> new Posting()).add(id, FIELD_WEIGHTS[field]);
+            }
+        }
+    }
+
+    private Doc remove(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return null;
+        }
+        for (String[] field : doc.fields) {
+            for (String term : field) {
+                Posting posting = postings.get(term);
+                if (posting != null && posting.remove(id) && posting.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Indexed terms a query term matches: the word itself and the words it is a prefix of.
+     */
+    private TermMatch match(String term) {
+        TermMatch match = new TermMatch();
+        for (Map.Entry<String, Posting> entry : postings.tailMap(term, true).entrySet()) {
+            String indexed = entry.getKey();
+            if (!indexed.startsWith(term) || match.postings.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            Posting posting = entry.getValue();
+            float idf = (float) Math.log(1.0 + (double) docs.size() / posting.size);
+            float factor = indexed.length() == term.length() ? 1.0f : PREFIX_FACTOR;
+            match.postings.add(posting);
+            match.boosts.add(factor * idf);
+            match.estimate += posting.size;
+        }
+        return match;
+    }
+
+    /**
+     * Keep, in place, the first count entries that also match another term, adding its score.
+     * The other match is advanced by galloping, so a short list costs little against a long one.
+     * @return number of entries kept
+     */
+    private static int intersect(int[] ids, float[] scores, int count, TermMatch other) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < other.size; i++) {
+            int at = gallop(other.ids, from, other.size, ids[i]);
+            if (at < other.size && other.ids[at] == ids[i]) {
+                ids[kept] = ids[i];
+                scores[kept] = scores[i] + other.scores[at];
+                kept++;
+                from = at + 1;
+            } else {
+                from = at;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * First index in [from, to) whose id is >= target.
+     */
+    private static int gallop(int[] ids, int from, int to, int target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && ids[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        int at = Arrays.binarySearch(ids, low, Math.min(high, to), target);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.length() >= 2 || (!token.isEmpty() && Character.isDigit(token.charAt(0)))) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static String[] toArray(List<String> terms) {
+        return terms.toArray(new String[0]);
+    }
+
+    private static boolean isCancelled(String statut) {
+        return "CANCELLED".equalsIgnoreCase(statut);
+    }
+
+    private static float saturate(float tf) {
+        return tf / (tf + SATURATION);
+    }
+
+    /**
+     * Projet ids containing a term (sorted) with their field-weighted frequency, in parallel arrays.
+     */
+    private static class Posting {
+        private int[] ids = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        void add(int id, float weight) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                weights[at] += weight;
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            System.arraycopy(weights, at, weights, at + 1, size - at);
+            ids[at] = id;
+            weights[at] = weight;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            System.arraycopy(weights, at + 1, weights, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Postings matched by one query term, each with its idf and prefix boost.
+     * merge() folds them into one id-sorted list of scores (a projet matching several
+     * expansions keeps its best one).
+     */
+    private static class TermMatch {
+        private final List<Posting> postings = new ArrayList<>();
+        private final List<Float> boosts = new ArrayList<>();
+        private int estimate;
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        void merge() {
+            if (postings.size() == 1) {
+                Posting posting = postings.get(0);
+                float boost = boosts.get(0);
+                ids = Arrays.copyOf(posting.ids, posting.size);
+                scores = new float[posting.size];
+                for (int i = 0; i < posting.size; i++) {
+                    scores[i] = boost * saturate(posting.weights[i]);
+                }
+                size = posting.size;
+                return;
+            }
+            // Pack (id, score) so one primitive sort orders by id, then by score (positive float bits sort like values)
+            long[] packed = new long[estimate];
+            int n = 0;
+            for (int p = 0; p < postings.size(); p++) {
+                Posting posting = postings.get(p);
+                float boost = boosts.get(p);
+                for (int i = 0; i < posting.size; i++) {
+                    packed[n++] = ((long) posting.ids[i] << 32) | Float.floatToIntBits(boost * saturate(posting.weights[i]));
+                }
+            }
+            Arrays.sort(packed, 0, n);
+            ids = new int[n];
+            scores = new float[n];
+            size = 0;
+            for (int i = 0; i < n; i++) {
+                int id = (int) (packed[i] >>> 32);
+                float score = Float.intBitsToFloat((int) packed[i]);
+                if (size > 0 && ids[size - 1] == id) {
+                    scores[size - 1] = score;   // Sorted by score within an id: the last is the best
+                } else {
+                    ids[size] = id;
+                    scores[size] = score;
+                    size++;
+                }
+            }
+        }
+    }
+
+    private static class Doc {
+        private final String[][] fields = new String[4][];
+        private boolean cancelled;
+    }
+
+    private static class Hit implements Comparable<Hit> {
+        private final int id;
+        private final float score;
+
+        Hit(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.id, id);
+        }
+    }
+}
@@ -1,15 +1,37 @@
 package Services;
 
 import DataBase.MyConnection;
+import Models.ChangeSet;
+import Models.KeysetCursor;
+import Models.Page;
 import Models.Projet;
+import Models.ProjetQuery;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class ProjetService {
 
-    private final Connection cnx = MyConnection.getConnection();
+    // How far before the requested version changesSince looks, to catch transactions committed late
+    private static final long CHANGES_OVERLAP_MS = 5_000;
+    // Deletion tombstones are kept this long; older versions get a full reload
+    private static final int TOMBSTONE_RETENTION_DAYS = 7;
+
+    private final ProjetSearchIndex searchIndex = ProjetSearchIndex.getInstance();
+    private final StatisticsService statistics = StatisticsService.getInstance();
+
+    /**
+     * Ids of the projets matching a free-text query (titre, description, company email/address),
+     * best match first. Every word also matches as a prefix; all words must match.
+     */
+    public List<Integer> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
 
     public List<Projet> afficher() {
         String sql = "SELECT id, entreprise_id, titre, description, budget, statut, score_esg, " +
@@ -19,7 +41,8 @@ public class ProjetService {
 
         List<Projet> list = new ArrayList<>();
 
-        try (PreparedStatement ps = cnx.prepareStatement(sql);
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -48,6 +71,158 @@ public class ProjetService {
         return list;
     }
 
+    /**
+     * One page of projets matching a query. Filters, sort and keyset position all go to SQL;
+     * one extra row is fetched to know whether another page exists.
+     */
+    public Page<Projet> afficherPage(ProjetQuery q) {
+        List<Projet> list = new ArrayList<>();
+        if (q.getIds() != null && q.getIds().isEmpty()) {
+            return new Page<>(list, null);
+        }
+        List<Object> params = new ArrayList<>();
+        StringBuilder where = new StringBuilder(whereClause(q, params));
+        String key = sortKey(q.getSort());
+        String dir = q.isDescending() ? "DESC" : "ASC";
+        if (q.getAfter() != null) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ")
+                 .append(keysetCondition(key, q.getSort().isNullable(), q.isDescending(), q.getAfter(), params));
+        }
+        String sql = "SELECT " + columns(q.isWithDescription()) + " FROM projet" + where +
+                " ORDER BY " + key + " " + dir + ", id " + dir + " LIMIT ?";
+        params.add(q.getLimit() + 1);
+
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapProjet(rs, q.isWithDescription()));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Erreur afficherPage: " + e.getMessage());
+        }
+
+        KeysetCursor next = null;
+        if (list.size() > q.getLimit()) {
+            list.remove(q.getLimit());
+            Projet last = list.get(q.getLimit() - 1);
+            next = new KeysetCursor(q.getSort().valueOf(last), last.getId());
+        }
+        return new Page<>(list, next);
+    }
+
+    /**
+     * Number of projets matching the filters of a query (sort and page position are ignored).
+     */
+    public long compter(ProjetQuery q) {
+        if (q.getIds() != null && q.getIds().isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM projet" + whereClause(q, params);
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.out.println("Erreur compter projets: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Current version (database clock) to pass to changesSince later; -1 on error.
+     */
+    public long currentVersion() {
+        try (Connection cnx = MyConnection.getConnection();
+             Statement st = cnx.createStatement();
+             ResultSet rs = st.executeQuery("SELECT NOW(3)")) {
+            return rs.next() ? rs.getTimestamp(1).getTime() : -1;
+        } catch (SQLException e) {
+            System.out.println("Erreur currentVersion: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Projets created or modified, and ids deleted, since a version returned by currentVersion or a
+     * previous call. Rows are matched on updated_at from CHANGES_OVERLAP_MS before the version, so
+     * rows committed late with an earlier timestamp are not missed (they may be returned twice).
+     * @return the changes, or null on error or when the version is older than the tombstones
+     *         (the caller reloads everything)
+     */
+    public ChangeSet<Projet> changesSince(long version, boolean withDescription) {
+        Timestamp since = new Timestamp(version - CHANGES_OVERLAP_MS);
+        try (Connection cnx = MyConnection.getConnection()) {
+            long next;
+            try (Statement st = cnx.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT NOW(3)")) {
+                rs.next();
+                next = rs.getTimestamp(1).getTime();
+            }
+            if (next - version > TimeUnit.DAYS.toMillis(TOMBSTONE_RETENTION_DAYS)) {
+                return null;
+            }
+            List<Projet> changed = new ArrayList<>();
+            try (PreparedStatement ps = cnx.prepareStatement(
+                    "SELECT " + columns(withDescription) + " FROM projet WHERE updated_at >= ?")) {
+                ps.setTimestamp(1, since);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(mapProjet(rs, withDescription));
+                    }
+                }
+            }
+            Set<Integer> deleted = new HashSet<>();
+            try (PreparedStatement ps = cnx.prepareStatement(
+                    "SELECT projet_id FROM projet_deletions WHERE deleted_at >= ?")) {
+                ps.setTimestamp(1, since);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        deleted.add(rs.getInt("projet_id"));
+                    }
+                }
+            }
+            return new ChangeSet<>(changed, deleted, next);
+        } catch (SQLException e) {
+            System.out.println("Erreur changesSince: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Delete the deletion tombstones older than the retention period.
+     */
+    public void purgeTombstones() {
+        String sql = "DELETE FROM projet_deletions WHERE deleted_at < NOW(3) - INTERVAL " + TOMBSTONE_RETENTION_DAYS + " DAY";
+        try (Connection cnx = MyConnection.getConnection();
+             Statement st = cnx.createStatement()) {
+            st.executeUpdate(sql);
+        } catch (SQLException e) {
+            System.out.println("Erreur purge projet_deletions: " + e.getMessage());
+        }
+    }
+
+    public Projet getById(int id) {
+        String sql = "SELECT " + columns(true) + " FROM projet WHERE id=?";
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapProjet(rs, true);
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Erreur getById projet: " + e.getMessage());
+        }
+        return null;
+    }
+
     public List<Projet> getByEntreprise(int entrepriseId) {
         String sql = "SELECT id, entreprise_id, titre, description, budget, statut, score_esg, " +
                 "       company_address, company_email, company_phone " +
@@ -57,7 +232,8 @@ public class ProjetService {
 
         List<Projet> list = new ArrayList<>();
 
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setInt(1, entrepriseId);
 
             try (ResultSet rs = ps.executeQuery()) {
@@ -93,7 +269,8 @@ public class ProjetService {
                 "  company_address, company_email, company_phone" +
                 ") VALUES (?,?,?,?,?,?,?,?,?)";
 
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, p.getEntrepriseId());
             ps.setString(2, p.getTitre());
             ps.setString(3, p.getDescription());
@@ -109,6 +286,13 @@ public class ProjetService {
             ps.setString(9, p.getCompanyPhone());
 
             ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    p.setId(keys.getInt(1));
+                    searchIndex.index(p);
+                    statistics.invalidate();
+                }
+            }
 
         } catch (SQLException e) {
             System.out.println("Erreur insert projet: " + e.getMessage());
@@ -121,7 +305,8 @@ public class ProjetService {
                 "  company_address=?, company_email=?, company_phone=? " +
                 "WHERE id=?";
 
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setString(1, p.getTitre());
             ps.setString(2, p.getDescription());
             ps.setDouble(3, p.getBudget());
@@ -135,7 +320,10 @@ public class ProjetService {
 
             ps.setInt(9, p.getId());
 
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                searchIndex.index(p);
+                statistics.invalidate();
+            }
 
         } catch (SQLException e) {
             System.out.println("Erreur update projet: " + e.getMessage());
@@ -145,13 +333,16 @@ public class ProjetService {
 
     public void updateDescriptionOnly(int id, String description, String address, String email, String phone) {
         String sql = "UPDATE projet SET description=?, company_address=?, company_email=?, company_phone=? WHERE id=?";
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setString(1, description);
             ps.setString(2, address);
             ps.setString(3, email);
             ps.setString(4, phone);
             ps.setInt(5, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                searchIndex.updateDetails(id, description, address, email);
+            }
         } catch (SQLException e) {
             System.out.println("Erreur updateDescriptionOnly: " + e.getMessage());
         }
@@ -159,9 +350,27 @@ public class ProjetService {
 
     public void delete(int id) {
         String sql = "DELETE FROM projet WHERE id=?";
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            ps.executeUpdate();
+        // Tombstone read by changesSince, written in the same transaction as the delete
+        String sqlTombstone = "INSERT INTO projet_deletions (projet_id) VALUES (?)";
+        try (Connection cnx = MyConnection.getConnection()) {
+            cnx.setAutoCommit(false);
+            try (PreparedStatement ps = cnx.prepareStatement(sql);
+                 PreparedStatement psTombstone = cnx.prepareStatement(sqlTombstone)) {
+                ps.setInt(1, id);
+                boolean deleted = ps.executeUpdate() > 0;
+                if (deleted) {
+                    psTombstone.setInt(1, id);
+                    psTombstone.executeUpdate();
+                }
+                cnx.commit();
+                if (deleted) {
+                    searchIndex.delete(id);
+                    statistics.invalidate();
+                }
+            } catch (SQLException e) {
+                cnx.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.out.println("Erreur delete projet: " + e.getMessage());
         }
@@ -169,9 +378,13 @@ public class ProjetService {
 
     public void cancel(int id) {
         String sql = "UPDATE projet SET statut='CANCELLED' WHERE id=?";
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setInt(1, id);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                searchIndex.setStatut(id, "CANCELLED");
+                statistics.invalidate();
+            }
         } catch (SQLException e) {
             System.out.println("Erreur cancel projet: " + e.getMessage());
         }
@@ -179,10 +392,16 @@ public class ProjetService {
 
     public boolean updateStatut(int idProjet, String statut) {
         String sql = "UPDATE projet SET statut=? WHERE id=?";
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setString(1, statut);
             ps.setInt(2, idProjet);
-            return ps.executeUpdate() > 0;
+            if (ps.executeUpdate() > 0) {
+                searchIndex.setStatut(idProjet, statut);
+                statistics.invalidate();
+                return true;
+            }
+            return false;
         } catch (SQLException e) {
             System.out.println("Erreur updateStatut: " + e.getMessage());
             return false;
@@ -191,7 +410,8 @@ public class ProjetService {
 
     public String getStatutById(int idProjet) {
         String sql = "SELECT statut FROM projet WHERE id=?";
-        try (PreparedStatement ps = cnx.prepareStatement(sql)) {
+        try (Connection cnx = MyConnection.getConnection();
+             PreparedStatement ps = cnx.prepareStatement(sql)) {
             ps.setInt(1, idProjet);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -203,4 +423,106 @@ public class ProjetService {
         }
         return null;
     }
+
+    // ==================== HELPERS REQUETES ====================
+
+    private String columns(boolean withDescription) {
+        return "id, entreprise_id, titre, budget, statut, score_esg, company_address, company_email, " +
+                "company_phone, date_creation" + (withDescription ? ", description" : "");
+    }
+
+    private String whereClause(ProjetQuery q, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (q.getStatut() != null) {
+            conditions.add("statut = ?");
+            params.add(q.getStatut());
+        }
+        if (q.getEntrepriseId() != null) {
+            conditions.add("entreprise_id = ?");
+            params.add(q.getEntrepriseId());
+        }
+        if (q.getMinScore() != null) {
+            conditions.add("score_esg >= ?");
+            params.add(q.getMinScore());
+        }
+        if (q.getMaxScore() != null) {
+            conditions.add("score_esg <= ?");
+            params.add(q.getMaxScore());
+        }
+        if (q.getMinBudget() != null) {
+            conditions.add("budget >= ?");
+            params.add(q.getMinBudget());
+        }
+        if (q.getMaxBudget() != null) {
+            conditions.add("budget <= ?");
+            params.add(q.getMaxBudget());
+        }
+        if (q.getIds() != null) {
+            StringBuilder in = new StringBuilder("id IN (");
+            int n = 0;
+            for (Integer id : q.getIds()) {
+                in.append(n++ == 0 ? "?" : ", ?");
+                params.add(id);
+            }
+            conditions.add(in.append(")").toString());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Rows strictly after the cursor in (key, id) order. For a nullable key, NULLs come first ascending
+     * and last descending (MySQL order), and a NULL cursor value is compared with IS NULL.
+     */
+    private String keysetCondition(String key, boolean nullable, boolean descending, KeysetCursor after, List<Object> params) {
+        String cmp = descending ? "<" : ">";
+        Object value = after.getValue();
+        if (nullable && value == null) {
+            params.add(after.getId());
+            // Among the NULLs, then (ascending only) every non-NULL value
+            return "((" + key + " IS NULL AND id " + cmp + " ?)" + (descending ? ")" : " OR " + key + " IS NOT NULL)");
+        }
+        params.add(value);
+        params.add(value);
+        params.add(after.getId());
+        String condition = "(" + key + " " + cmp + " ? OR (" + key + " = ? AND id " + cmp + " ?)";
+        // Descending, the NULLs come after every value
+        return condition + (nullable && descending ? " OR " + key + " IS NULL)" : ")");
+    }
+
+    /**
+     * SQL sort key; projets without a score sort as -1 so the keyset comparison never meets a NULL.
+     */
+    private String sortKey(ProjetQuery.Sort sort) {
+        return sort == ProjetQuery.Sort.SCORE ? "COALESCE(score_esg, -1)" : sort.getColumn();
+    }
+
+    private void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof LocalDateTime) {
+                ps.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) value));
+            } else {
+                ps.setObject(i + 1, value);
+            }
+        }
+    }
+
+    private Projet mapProjet(ResultSet rs, boolean withDescription) throws SQLException {
+        Integer score = (Integer) rs.getObject("score_esg");
+        Projet p = new Projet(
+                rs.getInt("id"),
+                rs.getInt("entreprise_id"),
+                rs.getString("titre"),
+                withDescription ? rs.getString("description") : null,
+                rs.getDouble("budget"),
+                score,
+                rs.getString("statut"),
+                rs.getString("company_address"),
+                rs.getString("company_email"),
+                rs.getString("company_phone")
+        );
+        Timestamp created = rs.getTimestamp("date_creation");
+        p.setDateCreation(created != null ? created.toLocalDateTime() : null);
+        return p;
+    }
 }
@@ -0,0 +1,376 @@
+package Services;
+
+import DataBase.MyConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * ESG scoring engine: derives Evaluation.scoreGlobal and Projet.scoreEsg from the CritereImpact notes.
+ * A score is the weighted share of satisfied criteria (note 1) on a 0-100 scale; an evaluation is scored
+ * from its own criteria, a projet from the criteria of all its evaluations. Criteria weigh 1 unless a
+ * weight was stored for their name in critere_poids (setPoids); the scoring queries join that table.
+ * A projet without any criteria has no score (NULL, as a new projet).
+ * rescoreAll() recomputes everything in parallel over ranges of evaluation ids; rescoreEvaluation()
+ * refreshes one evaluation and its projet after a critere changed.
+ */
+public class ScoringService {
+
+    // Evaluation ids per range read by one worker
+    private static final int RANGE_SIZE = 5_000;
+    private static final int UPDATE_BATCH_SIZE = 1_000;
+    // Workers each hold a pooled connection: leave room for the UI and the background jobs
+    private static final int PARALLELISM = 4;
+
+    private static final ScoringService instance = new ScoringService();
+
+    private ScoringService() {}
+
+    public static ScoringService getInstance() {
+        return instance;
+    }
+
+    // ==================== WEIGHTS ====================
+
+    // Weight of a critere row: its stored weight, 1 when none was set for its name
+    private static final String POIDS_JOIN =
+            "LEFT JOIN critere_poids p ON p.nom = LOWER(TRIM(c.nom)) ";
+    private static final String POIDS = "COALESCE(p.poids, 1)";
+
+    /**
+     * Store the weight of the criteria with this name (case-insensitive); takes effect at the next rescoring.
+     * @return true if the weight was saved
+     */
+    public boolean setPoids(String nom, double valeur) {
+        if (valeur <= 0) {
+            throw new IllegalArgumentException("Le poids doit être positif");
+        }
+        String sql = "INSERT INTO critere_poids (nom, poids) VALUES (?, ?) ON DUPLICATE KEY UPDATE poids = VALUES(poids)";
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, key(nom));
+            ps.setDouble(2, valeur);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException ex) {
+            System.out.println("Erreur enregistrement poids: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    public double getPoids(String nom) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT poids FROM critere_poids WHERE nom = ?")) {
+            ps.setString(1, key(nom));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getDouble("poids") : 1.0;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Erreur lecture poids: " + ex.getMessage());
+            return 1.0;
+        }
+    }
+
+    // ==================== INCREMENTAL RESCORING ====================
+
+    /**
+     * Recompute one evaluation and its projet, after one of its criteria was added, modified or deleted.
+     * An evaluation left without criteria scores 0.
+     * @return the new evaluation score, or -1 on error
+     */
+    public double rescoreEvaluation(int idEvaluation) {
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Integer idProjet = projetOf(conn, idEvaluation);
+                if (idProjet == null) {
+                    conn.commit();
+                    return -1;
+                }
+                Score score = new Score();
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "SELECT c.note, " + POIDS + " AS poids FROM critere_impact c " + POIDS_JOIN +
+                        "WHERE c.id_evaluation = ?")) {
+                    ps.setInt(1, idEvaluation);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            score.add(rs.getDouble("poids"), rs.getInt("note"));
+                        }
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE evaluation SET score_global = ? WHERE id_evaluation = ?")) {
+                    ps.setDouble(1, score.value());
+                    ps.setInt(2, idEvaluation);
+                    ps.executeUpdate();
+                }
+                rescoreProjet(conn, idProjet);
+                conn.commit();
+                return score.value();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Erreur calcul score evaluation: " + ex.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Recompute the ESG score of a projet (after one of its evaluations was deleted or moved to
+     * another projet, for instance). A projet left without any criteria goes back to no score.
+     */
+    public void rescoreProjet(int idProjet) {
+        try (Connection conn = MyConnection.getConnection()) {
+            rescoreProjet(conn, idProjet);
+        } catch (SQLException ex) {
+            System.out.println("Erreur calcul score projet: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Projet of an evaluation, or null if the evaluation does not exist (or on error).
+     */
+    public Integer projetOf(int idEvaluation) {
+        try (Connection conn = MyConnection.getConnection()) {
+            return projetOf(conn, idEvaluation);
+        } catch (SQLException ex) {
+            System.out.println("Erreur lecture projet de l'evaluation: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // ==================== FULL RESCORING ====================
+
+    /**
+     * Recompute every evaluation and projet score.
+     * Evaluation ids are split into ranges scored in parallel: each worker reads the evaluations of its range
+     * with their criteria in one query, writes the evaluation scores in batched UPDATEs (0 for an evaluation
+     * without criteria, as rescoreEvaluation does) and returns its per-projet sums.
+     * The sums are merged (a projet can span ranges) and the projet scores written in batches; projets
+     * without any criteria are reset to no score.
+     * @return number of evaluations scored, or -1 on error
+     */
+    public int rescoreAll() {
+        int[] bounds = evaluationBounds();
+        if (bounds == null) {
+            return -1;
+        }
+        if (bounds[1] < bounds[0]) {
+            return 0;
+        }
+        int ranges = (int) (((long) bounds[1] - bounds[0]) / RANGE_SIZE) + 1;
+        ForkJoinPool workers = new ForkJoinPool(PARALLELISM);
+        try {
+            List<RangeResult> results = workers.submit(() ->
+                    IntStream.range(0, ranges).parallel()
+                            .mapToObj(i -> {
+                                int from = bounds[0] + i * RANGE_SIZE;
+                                return scoreRange(from, Math.min(bounds[1], from + RANGE_SIZE - 1));
+                            })
+                            .toList()
+            ).get();
+
+            int evaluations = 0;
+            Map<Integer, Score> projets = new HashMap<>();
+            for (RangeResult result : results) {
+                if (result.evaluations < 0) {
+                    return -1;
+                }
+                evaluations += result.evaluations;
+                result.projets.forEach((id, score) -> projets.merge(id, score, Score::merge));
+            }
+            return writeProjetScores(projets) ? evaluations : -1;
+        } catch (Exception ex) {
+            System.out.println("Erreur recalcul des scores: " + ex.getMessage());
+            return -1;
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private RangeResult scoreRange(int from, int to) {
+        // One row per critere, and one row with a NULL note for an evaluation without criteria
+        String sql = "SELECT e.id_evaluation, e.id_projet, c.note, " + POIDS + " AS poids FROM evaluation e " +
+                     "LEFT JOIN critere_impact c ON c.id_evaluation = e.id_evaluation " + POIDS_JOIN +
+                     "WHERE e.id_evaluation BETWEEN ? AND ?";
+        Map<Integer, Score> evaluations = new HashMap<>();
+        Map<Integer, Score> projets = new HashMap<>();
+        try (Connection conn = MyConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, from);
+                ps.setInt(2, to);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Score evaluation = evaluations.computeIfAbsent(rs.getInt("id_evaluation"), k -> new Score());
+                        int note = rs.getInt("note");
+                        if (rs.wasNull()) {
+                            continue;
+                        }
+                        double w = rs.getDouble("poids");
+                        evaluation.add(w, note);
+                        projets.computeIfAbsent(rs.getInt("id_projet"), k -> new Score()).add(w, note);
+                    }
+                }
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE evaluation SET score_global = ? WHERE id_evaluation = ?")) {
+                int pending = 0;
+                for (Map.Entry<Integer, Score> entry : evaluations.entrySet()) {
+                    ps.setDouble(1, entry.getValue().value());
+                    ps.setInt(2, entry.getKey());
+                    ps.addBatch();
+                    if (++pending == UPDATE_BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Erreur calcul scores evaluations " + from + "-" + to + ": " + ex.getMessage());
+            return new RangeResult(-1, projets);
+        }
+        return new RangeResult(evaluations.size(), projets);
+    }
+
+    private boolean writeProjetScores(Map<Integer, Score> projets) {
+        String clear = "UPDATE projet p SET score_esg = NULL WHERE score_esg IS NOT NULL AND NOT EXISTS (" +
+                       "SELECT 1 FROM evaluation e JOIN critere_impact c ON c.id_evaluation = e.id_evaluation " +
+                       "WHERE e.id_projet = p.id)";
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement();
+                 PreparedStatement ps = conn.prepareStatement("UPDATE projet SET score_esg = ? WHERE id = ?")) {
+                int pending = 0;
+                for (Map.Entry<Integer, Score> entry : projets.entrySet()) {
+                    ps.setInt(1, (int) Math.round(entry.getValue().value()));
+                    ps.setInt(2, entry.getKey());
+                    ps.addBatch();
+                    if (++pending == UPDATE_BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+                st.executeUpdate(clear);
+                conn.commit();
+                return true;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            System.out.println("Erreur ecriture scores projets: " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private void rescoreProjet(Connection conn, int idProjet) throws SQLException {
+        Score score = new Score();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT c.note, " + POIDS + " AS poids FROM critere_impact c " +
+                "JOIN evaluation e ON e.id_evaluation = c.id_evaluation " + POIDS_JOIN +
+                "WHERE e.id_projet = ?")) {
+            ps.setInt(1, idProjet);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    score.add(rs.getDouble("poids"), rs.getInt("note"));
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE projet SET score_esg = ? WHERE id = ?")) {
+            if (score.total == 0) {
+                ps.setNull(1, Types.INTEGER);
+            } else {
+                ps.setInt(1, (int) Math.round(score.value()));
+            }
+            ps.setInt(2, idProjet);
+            ps.executeUpdate();
+        }
+    }
+
+    private Integer projetOf(Connection conn, int idEvaluation) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id_projet FROM evaluation WHERE id_evaluation = ?")) {
+            ps.setInt(1, idEvaluation);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("id_projet") : null;
+            }
+        }
+    }
+
+    /**
+     * {min, max} evaluation id, {0, -1} when there is none, or null on error.
+     */
+    private int[] evaluationBounds() {
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MIN(id_evaluation), MAX(id_evaluation) FROM evaluation")) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return new int[]{rs.getInt(1), rs.getInt(2)};
+            }
+            return new int[]{0, -1};
+        } catch (SQLException ex) {
+            System.out.println("Erreur lecture des evaluations: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static String key(String nom) {
+        return nom == null ? "" : nom.trim().toLowerCase();
+    }
+
+    /**
+     * Weighted sum of notes and sum of weights; the score is their ratio on a 0-100 scale.
+     */
+    private static class Score {
+        private double weighted;
+        private double total;
+
+        void add(double weight, int note) {
+            weighted += weight * note;
+            total += weight;
+        }
+
+        Score merge(Score other) {
+            weighted += other.weighted;
+            total += other.total;
+            return this;
+        }
+
+        double value() {
+            return total == 0 ? 0 : Math.round(weighted / total * 10_000) / 100.0;
+        }
+    }
+
+    private static class RangeResult {
+        private final int evaluations;
+        private final Map<Integer, Score> projets;
+
+        RangeResult(int evaluations, Map<Integer, Score> projets) {
+            this.evaluations = evaluations;
+            this.projets = projets;
+        }
+    }
+}
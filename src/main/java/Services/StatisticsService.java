@@ -0,0 +1,93 @@
+package Services;
+
+import DataBase.MyConnection;
+import Models.ProjetStatistics;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counters computed by the database: a single GROUP BY statut query counts the projets
+ * and, through an EXISTS on evaluation, the evaluated ones. The snapshot is cached for TTL_MILLIS
+ * and dropped by invalidate(), which the projet and evaluation services call after every mutation,
+ * so dashboards refresh without reloading any projet.
+ */
+public class StatisticsService {
+
+    private static final long TTL_MILLIS = 5_000;
+    private static final StatisticsService instance = new StatisticsService();
+
+    // Bumped on every invalidation: a snapshot computed across an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot cached;
+
+    private StatisticsService() {}
+
+    public static StatisticsService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Current counters, from the cache when it is fresh. On error the counters are empty (all zero).
+     */
+    public ProjetStatistics getStatistiques() {
+        Snapshot snapshot = cached;
+        long gen = generation.get();
+        if (snapshot != null && snapshot.generation == gen
+                && System.nanoTime() - snapshot.loadedAt < TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS)) {
+            return snapshot.statistics;
+        }
+        ProjetStatistics statistics = load();
+        if (statistics != null) {
+            if (generation.get() == gen) {
+                cached = new Snapshot(statistics, gen, System.nanoTime());
+            }
+            return statistics;
+        }
+        return new ProjetStatistics();
+    }
+
+    /**
+     * Drop the cached counters (a projet or an evaluation was created, changed or deleted).
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private ProjetStatistics load() {
+        String sql = "SELECT p.statut, COUNT(*) AS total, " +
+                     "SUM(EXISTS (SELECT 1 FROM evaluation e WHERE e.id_projet = p.id)) AS evalues " +
+                     "FROM projet p GROUP BY p.statut";
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            ProjetStatistics statistics = new ProjetStatistics();
+            while (rs.next()) {
+                statistics.add(rs.getString("statut"), rs.getLong("total"), rs.getLong("evalues"));
+            }
+            return statistics;
+        } catch (SQLException ex) {
+            System.out.println("Erreur lecture statistiques: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static class Snapshot {
+        private final ProjetStatistics statistics;
+        private final long generation;
+        private final long loadedAt;
+
+        Snapshot(ProjetStatistics statistics, long generation, long loadedAt) {
+            this.statistics = statistics;
+            this.generation = generation;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
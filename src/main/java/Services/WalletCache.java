@@ -0,0 +1,192 @@
+package Services;
+
+import Models.Wallet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory cache of wallet rows shared by every WalletService.
+ * WalletService invalidates a wallet after each committed credit movement and the next read reloads it;
+ * the database stays the source of truth. Entries expire after a TTL and the least recently used entry
+ * is evicted when the cache is full (access-ordered map, O(1) per operation). Callers always receive copies.
+ */
+public class WalletCache {
+
+    private static final WalletCache instance = new WalletCache();
+
+    // Access-ordered: iteration starts at the least recently used entry. Guarded by itself.
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    // Write versions per stripe of wallet ids, bumped on every write so a load racing with a write never
+    // caches a stale row; an invalidation only discards the concurrent loads of wallets in its stripe
+    private static final int STRIPES = 64;
+    private final AtomicLongArray writeSeq = new AtomicLongArray(STRIPES);
+    private volatile int maxSize = 1000;
+    private volatile long ttlMillis = 60_000;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private WalletCache() {}
+
+    public static WalletCache getInstance() {
+        return instance;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        synchronized (entries) {
+            Iterator<Integer> eldest = entries.keySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Cached copy of a wallet, or null on miss/expiry.
+     */
+    public Wallet get(int walletId) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(walletId);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+                entries.remove(walletId);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new Wallet(entry.wallet);
+    }
+
+    /**
+     * Token to take before reading a wallet from the database; pass it to {@link #putLoaded}.
+     */
+    public long beginLoad(int walletId) {
+        return writeSeq.get(stripe(walletId));
+    }
+
+    /**
+     * Tokens to take before reading many wallets from the database; pass them to {@link #putAllLoaded}.
+     */
+    public long[] beginLoadAll() {
+        long[] tokens = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            tokens[i] = writeSeq.get(i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Cache a wallet read from the database, unless a write to its stripe happened since the load began.
+     */
+    public void putLoaded(Wallet wallet, long loadToken) {
+        if (wallet == null) {
+            return;
+        }
+        synchronized (entries) {
+            // Checked under the lock so an invalidation cannot slip between the check and the put
+            if (writeSeq.get(stripe(wallet.getId())) == loadToken) {
+                entries.put(wallet.getId(), new Entry(new Wallet(wallet)));
+            }
+        }
+    }
+
+    /**
+     * Cache wallets read together, skipping those whose stripe was written since the load began.
+     */
+    public void putAllLoaded(List<Wallet> wallets, long[] loadTokens) {
+        synchronized (entries) {
+            for (Wallet wallet : wallets) {
+                int stripe = stripe(wallet.getId());
+                if (writeSeq.get(stripe) == loadTokens[stripe]) {
+                    entries.put(wallet.getId(), new Entry(new Wallet(wallet)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop a wallet after a committed change. Loads of its stripe that began before the call are not
+     * cached, whether they read the row before or after the commit, so the next read always reloads it.
+     */
+    public void invalidate(int walletId) {
+        synchronized (entries) {
+            writeSeq.incrementAndGet(stripe(walletId));
+            entries.remove(walletId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (int i = 0; i < STRIPES; i++) {
+                writeSeq.incrementAndGet(i);
+            }
+            entries.clear();
+        }
+    }
+
+    private static int stripe(int walletId) {
+        return walletId & (STRIPES - 1);
+    }
+
+    // ==================== METRICS ====================
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public String getStats() {
+        return String.format("[size=%d, hits=%d, misses=%d, evictions=%d]",
+            size(), getHits(), getMisses(), getEvictions());
+    }
+
+    private static class Entry {
+        final Wallet wallet;
+        final long loadedAt;
+
+        Entry(Wallet wallet) {
+            this.wallet = wallet;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+}
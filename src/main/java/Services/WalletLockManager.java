@@ -0,0 +1,65 @@
+package Services;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by wallet id.
+ * Credit movements on disjoint wallets run in parallel; movements touching the same wallet are serialized.
+ * Two-wallet operations always acquire stripes in ascending order so concurrent transfers cannot deadlock.
+ */
+public class WalletLockManager {
+
+    private static final int STRIPES = 64;
+    private static final WalletLockManager instance = new WalletLockManager();
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private WalletLockManager() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public static WalletLockManager getInstance() {
+        return instance;
+    }
+
+    private int stripeOf(int walletId) {
+        // Spread sequential ids so neighbouring wallets land on different stripes
+        int h = walletId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    public void lock(int walletId) {
+        locks[stripeOf(walletId)].lock();
+    }
+
+    public void unlock(int walletId) {
+        locks[stripeOf(walletId)].unlock();
+    }
+
+    /**
+     * Lock the stripes of two wallets in a global order.
+     */
+    public void lockBoth(int firstWalletId, int secondWalletId) {
+        int a = stripeOf(firstWalletId);
+        int b = stripeOf(secondWalletId);
+        if (a == b) {
+            locks[a].lock();
+            return;
+        }
+        locks[Math.min(a, b)].lock();
+        locks[Math.max(a, b)].lock();
+    }
+
+    public void unlockBoth(int firstWalletId, int secondWalletId) {
+        int a = stripeOf(firstWalletId);
+        int b = stripeOf(secondWalletId);
+        if (a == b) {
+            locks[a].unlock();
+            return;
+        }
+        locks[Math.max(a, b)].unlock();
+        locks[Math.min(a, b)].unlock();
+    }
+}
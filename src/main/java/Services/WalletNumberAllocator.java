@@ -0,0 +1,122 @@
+package Services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Hands out 6-digit wallet numbers (100000-999999) without probing the wallet table.
+ * A counter is reserved from the wallet_number_sequence table in blocks (hi/lo), so only one round
+ * trip is needed per BLOCK_SIZE numbers whatever the number of concurrent creators. Each counter
+ * value is mapped through a fixed permutation of the 900000 possible numbers, so distinct counters
+ * always give distinct numbers while consecutive wallets do not get consecutive numbers.
+ * Numbers of a block not used before a restart are simply skipped.
+ */
+public class WalletNumberAllocator {
+
+    private static final int MIN_NUMBER = 100_000;
+    private static final int NUMBER_COUNT = 900_000;   // 100000..999999
+    private static final int BLOCK_SIZE = 100;
+    private static final String SEQUENCE_NAME = "wallet";
+    // Round keys of the Feistel permutation (changing them changes every future number)
+    private static final int[] ROUND_KEYS = {0x5bd1e995, 0x27d4eb2f, 0x165667b1, 0x3c6ef372};
+
+    private static final WalletNumberAllocator instance = new WalletNumberAllocator();
+
+    private long next;   // Next counter value of the current block
+    private long limit;  // End (exclusive) of the current block
+
+    private WalletNumberAllocator() {}
+
+    public static WalletNumberAllocator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Next wallet number, or -1 when the sequence cannot be reached or all numbers are used.
+     * A new block is reserved on the caller's connection, which must be in auto-commit mode: the
+     * reservation is its own short transaction, and no second connection is borrowed while the
+     * allocator is locked (with the pool exhausted by concurrent creators, that borrow would starve).
+     */
+    public synchronized int nextNumber(Connection conn) {
+        if (next >= limit) {
+            long blockEnd = reserveBlock(conn);
+            if (blockEnd < 0) {
+                return -1;
+            }
+            next = blockEnd - BLOCK_SIZE;
+            limit = blockEnd;
+        }
+        if (next >= NUMBER_COUNT) {
+            System.out.println("Wallet numbers exhausted");
+            return -1;
+        }
+        return MIN_NUMBER + permute((int) next++);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Reserve the next block with auto-commit statements, so the sequence row is locked only for
+     * this UPDATE and never for the duration of a wallet creation.
+     * @return end (exclusive) of the reserved block, or -1 on error
+     */
+    private long reserveBlock(Connection conn) {
+        String update = "UPDATE wallet_number_sequence SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?";
+        try {
+            if (!conn.getAutoCommit()) {
+                System.out.println("Error reserving wallet numbers: connection is inside a transaction");
+                return -1;
+            }
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try (PreparedStatement ps = conn.prepareStatement(update)) {
+                    ps.setInt(1, BLOCK_SIZE);
+                    ps.setString(2, SEQUENCE_NAME);
+                    if (ps.executeUpdate() == 1) {
+                        try (PreparedStatement last = conn.prepareStatement("SELECT LAST_INSERT_ID()");
+                             ResultSet rs = last.executeQuery()) {
+                            return rs.next() ? rs.getLong(1) : -1;
+                        }
+                    }
+                }
+                // First use: create the sequence row and try again
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT IGNORE INTO wallet_number_sequence (name, next_value) VALUES (?, 0)")) {
+                    ps.setString(1, SEQUENCE_NAME);
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error reserving wallet numbers: " + ex.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Bijection of [0, NUMBER_COUNT): a 4-round Feistel network on [0, 1000000) (two halves of
+     * three digits), cycle-walked until the result falls back inside the range.
+     */
+    private int permute(int value) {
+        int result = value;
+        do {
+            int left = result / 1000;
+            int right = result % 1000;
+            for (int key : ROUND_KEYS) {
+                int mixed = (left + round(right, key)) % 1000;
+                left = right;
+                right = mixed;
+            }
+            result = left * 1000 + right;
+        } while (result >= NUMBER_COUNT);
+        return result;
+    }
+
+    private int round(int half, int key) {
+        int h = (half + 1) * key;
+        h ^= h >>> 15;
+        h *= 0x2c1b3c6d;
+        h ^= h >>> 12;
+        return Math.floorMod(h, 1000);
+    }
+}
@@ -4,49 +4,105 @@ import DataBase.MyConnection;
 import Models.Wallet;
 import Models.CarbonCreditBatch;
 import Models.OperationWallet;
+import Models.IssueOrder;
+import Models.BulkIssueResult;
+import Models.BatchSummary;
+import Models.CreditAmount;
+import Models.KeysetCursor;
+import Models.LedgerEvent;
+import Models.Page;
+import Models.PortfolioSummary;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Service layer for Green Wallet operations including CRUD and credit management.
  */
 public class WalletService {
 
-    private Connection conn;
+    private static final int DEFAULT_BULK_CHUNK_SIZE = 500;
+    private static final int MAX_NUMBER_ATTEMPTS = 20;
+
+    private final WalletLockManager lockManager = WalletLockManager.getInstance();
+    private final WalletCache cache = WalletCache.getInstance();
+    private final BatchAllocator batchAllocator = BatchAllocator.getInstance();
+    private final LedgerService ledger = LedgerService.getInstance();
+    private final IdempotencyService idempotency = IdempotencyService.getInstance();
+    private final WalletNumberAllocator numberAllocator = WalletNumberAllocator.getInstance();
+    private final PortfolioService portfolio = PortfolioService.getInstance();
 
     public WalletService() {
-        this.conn = MyConnection.getConnection();
     }
 
     // ==================== CRUD OPERATIONS ====================
 
     /**
      * Create a new wallet.
+     * Without a wallet number, one is taken from the allocator. Numbers given out before the allocator
+     * existed may already be used; the insert then moves on to the next allocated number.
+     * The number is taken on the insert connection before its transaction starts, so a creation only
+     * ever holds one pooled connection.
      */
     public int createWallet(Wallet wallet) {
         String sql = "INSERT INTO wallet (wallet_number, name, owner_type, owner_id, available_credits, retired_credits) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            // Generate unique wallet number if not provided
-            if (wallet.getWalletNumber() == null) {
-                wallet.setWalletNumber(generateUniqueWalletNumber());
-            }
-            
-            ps.setInt(1, wallet.getWalletNumber());
+        boolean generatedNumber = wallet.getWalletNumber() == null;
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(2, wallet.getName());
             ps.setString(3, wallet.getOwnerType());
             ps.setInt(4, wallet.getOwnerId());
-            ps.setDouble(5, wallet.getAvailableCredits());
-            ps.setDouble(6, wallet.getRetiredCredits());
-            
-            ps.executeUpdate();
-            ResultSet rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                return rs.getInt(1);
+            ps.setBigDecimal(5, wallet.getAvailableCredits().toBigDecimal());
+            ps.setBigDecimal(6, wallet.getRetiredCredits().toBigDecimal());
+
+            for (int attempt = 0; ; attempt++) {
+                if (generatedNumber) {
+                    // Still in auto-commit mode: a block reservation commits on its own
+                    int number = numberAllocator.nextNumber(conn);
+                    if (number == -1) {
+                        return -1;
+                    }
+                    wallet.setWalletNumber(number);
+                }
+                ps.setInt(1, wallet.getWalletNumber());
+
+                conn.setAutoCommit(false);
+                try {
+                    try {
+                        ps.executeUpdate();
+                    } catch (SQLIntegrityConstraintViolationException ex) {
+                        if (!generatedNumber || attempt >= MAX_NUMBER_ATTEMPTS) {
+                            throw ex;
+                        }
+                        // Number already used: take the next one
+                        conn.rollback();
+                        conn.setAutoCommit(true);
+                        continue;
+                    }
+                    int id = -1;
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            id = rs.getInt(1);
+                        }
+                    }
+                    // Opening balances are the first ledger event of the wallet
+                    if (id != -1 && !(wallet.getAvailableCredits().isZero() && wallet.getRetiredCredits().isZero())) {
+                        ledger.append(conn, new LedgerEvent(id, "OPENING",
+                                wallet.getAvailableCredits(), wallet.getRetiredCredits(), null));
+                    }
+                    conn.commit();
+                    return id;
+                } catch (SQLException ex) {
+                    conn.rollback();
+                    throw ex;
+                }
             }
         } catch (SQLException ex) {
             System.out.println("Error creating wallet: " + ex.getMessage());
@@ -60,12 +116,16 @@ public class WalletService {
     public List<Wallet> getAllWallets() {
         List<Wallet> wallets = new ArrayList<>();
         String sql = "SELECT * FROM wallet ORDER BY created_at DESC";
+        long[] loadTokens = cache.beginLoadAll();
         
-        try (Statement st = conn.createStatement();
+        try (Connection conn = MyConnection.getConnection();
+             Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             while (rs.next()) {
                 wallets.add(mapResultSetToWallet(rs));
             }
+            // Warm the balance cache with what we just read
+            cache.putAllLoaded(wallets, loadTokens);
         } catch (SQLException ex) {
             System.out.println("Error fetching wallets: " + ex.getMessage());
         }
@@ -73,16 +133,25 @@ public class WalletService {
     }
 
     /**
-     * Read a single wallet by ID.
+     * Read a single wallet by ID (served from the wallet cache when possible).
      */
     public Wallet getWalletById(int id) {
+        Wallet cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
         String sql = "SELECT * FROM wallet WHERE id = ?";
+        long loadToken = cache.beginLoad(id);
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
-                return mapResultSetToWallet(rs);
+                Wallet wallet = mapResultSetToWallet(rs);
+                cache.putLoaded(wallet, loadToken);
+                return wallet;
             }
         } catch (SQLException ex) {
             System.out.println("Error fetching wallet: " + ex.getMessage());
@@ -96,7 +165,8 @@ public class WalletService {
     public Wallet getWalletByNumber(String walletNumber) {
         String sql = "SELECT * FROM wallet WHERE wallet_number = ?";
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, walletNumber);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -114,12 +184,15 @@ public class WalletService {
     public boolean updateWallet(Wallet wallet) {
         String sql = "UPDATE wallet SET name = ?, owner_type = ? WHERE id = ?";
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, wallet.getName());
             ps.setString(2, wallet.getOwnerType());
             ps.setInt(3, wallet.getId());
             
-            return ps.executeUpdate() > 0;
+            boolean updated = ps.executeUpdate() > 0;
+            cache.invalidate(wallet.getId());
+            return updated;
         } catch (SQLException ex) {
             System.out.println("Error updating wallet: " + ex.getMessage());
         }
@@ -137,18 +210,22 @@ public class WalletService {
         }
         
         // Check if wallet has zero credits
-        if (wallet.getTotalCredits() > 0) {
+        if (wallet.getTotalCredits().isPositive()) {
             System.out.println("Cannot delete wallet with existing credits");
             return false;
         }
         
-        String sql = "DELETE FROM wallet WHERE id = ?";
+        // Re-check the balance in SQL: the cached row may be a few milliseconds old
+        String sql = "DELETE FROM wallet WHERE id = ? AND available_credits = 0 AND retired_credits = 0";
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, walletId);
             return ps.executeUpdate() > 0;
         } catch (SQLException ex) {
             System.out.println("Error deleting wallet: " + ex.getMessage());
+        } finally {
+            cache.invalidate(walletId);
         }
         return false;
     }
@@ -159,49 +236,210 @@ public class WalletService {
      * Issue carbon credits to a wallet from a verified project.
      * Creates a new credit batch and records the transaction.
      */
-    public boolean issueCredits(int walletId, int projectId, double amount, String referenceNote) {
-        if (amount <= 0) {
+    public boolean issueCredits(int walletId, int projectId, CreditAmount amount, String referenceNote) {
+        return issueCredits(null, walletId, projectId, amount, referenceNote);
+    }
+
+    /**
+     * Issue credits at most once per client request id (null disables deduplication).
+     * A replay of a committed request returns the original result without issuing again.
+     */
+    public boolean issueCredits(String requestId, int walletId, int projectId, CreditAmount amount, String referenceNote) {
+        if (!amount.isPositive()) {
             System.out.println("Amount must be positive");
             return false;
         }
+        String fingerprint = fingerprint(requestId, "ISSUE", walletId, projectId, amount.toCents(), referenceNote);
+        Boolean replayed = recentReplay(requestId, fingerprint);
+        if (replayed != null) {
+            return replayed;
+        }
 
-        try {
+        try (Connection conn = MyConnection.getConnection()) {
             conn.setAutoCommit(false);
-            
-            // 1. Create credit batch
-            int batchId = createCreditBatch(projectId, walletId, amount);
-            if (batchId == -1) {
-                conn.rollback();
-                return false;
-            }
-            
-            // 2. Update wallet available credits
-            String updateWallet = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(updateWallet)) {
-                ps.setDouble(1, amount);
-                ps.setInt(2, walletId);
-                ps.executeUpdate();
-            }
-            
-            // 3. Record transaction
-            recordTransaction(walletId, batchId, "ISSUE", amount, referenceNote);
-            
-            conn.commit();
-            return true;
-            
-        } catch (SQLException ex) {
             try {
+                IdempotencyService.Claim claim = claimRequest(conn, requestId, "ISSUE", walletId, fingerprint);
+                if (claim != IdempotencyService.Claim.NEW) {
+                    conn.rollback();
+                    return replayResult(claim, requestId);
+                }
+
+                // 1. Create credit batch
+                int batchId = createCreditBatch(conn, projectId, walletId, amount);
+                if (batchId == -1) {
+                    conn.rollback();
+                    return false;
+                }
+
+                // 2. Update wallet available credits
+                String updateWallet = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
+                try (PreparedStatement ps = conn.prepareStatement(updateWallet)) {
+                    ps.setBigDecimal(1, amount.toBigDecimal());
+                    ps.setInt(2, walletId);
+                    ps.executeUpdate();
+                }
+
+                // 3. Record transaction
+                recordTransaction(conn, walletId, batchId, "ISSUE", amount, referenceNote);
+
+                conn.commit();
+                rememberRequest(requestId, fingerprint);
+                cache.invalidate(walletId);
+                batchAllocator.onBatchIssued(walletId, batchId, LocalDateTime.now(), amount);
+                return true;
+            } catch (SQLException ex) {
                 conn.rollback();
-            } catch (SQLException e) {
-                e.printStackTrace();
+                throw ex;
             }
+        } catch (SQLException ex) {
+            cache.invalidate(walletId);
             System.out.println("Error issuing credits: " + ex.getMessage());
             return false;
-        } finally {
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
+        }
+    }
+
+    /**
+     * Issue credits to many wallets at once (e.g. a verified project distributing to investors).
+     * Batches, wallet balances and transactions are written with JDBC batches, one transaction per chunk.
+     */
+    public BulkIssueResult bulkIssueCredits(List<IssueOrder> orders) {
+        return bulkIssueCredits(orders, DEFAULT_BULK_CHUNK_SIZE);
+    }
+
+    /**
+     * Same as {@link #bulkIssueCredits(List)} with an explicit number of orders per commit.
+     * A failing chunk is rolled back as a whole and all of its orders are reported as failed.
+     */
+    public BulkIssueResult bulkIssueCredits(List<IssueOrder> orders, int chunkSize) {
+        BulkIssueResult result = new BulkIssueResult(orders.size());
+        long start = System.currentTimeMillis();
+        int size = Math.max(1, chunkSize);
+
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            List<Integer> chunk = new ArrayList<>(size);
+            for (int i = 0; i < orders.size(); i++) {
+                IssueOrder order = orders.get(i);
+                if (order == null || order.getAmount() == null || !order.getAmount().isPositive()) {
+                    result.markFailed(i, "Amount must be positive");
+                    continue;
+                }
+                chunk.add(i);
+                if (chunk.size() == size) {
+                    issueChunk(conn, orders, chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                issueChunk(conn, orders, chunk, result);
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error bulk issuing credits: " + ex.getMessage());
+            for (int i = 0; i < orders.size(); i++) {
+                if (!result.isIssued(i) && result.getError(i) == null) {
+                    result.markFailed(i, ex.getMessage());
+                }
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private void issueChunk(Connection conn, List<IssueOrder> orders, List<Integer> chunk,
+                            BulkIssueResult result) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String batchSql = "INSERT INTO carbon_credit_batches (project_id, wallet_id, total_amount, " +
+                          "remaining_amount, status, issued_at) VALUES (?, ?, ?, ?, ?, ?)";
+        String walletSql = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
+        String transactionSql = "INSERT INTO wallet_transactions (wallet_id, batch_id, type, amount, reference_note, created_at) " +
+                                "VALUES (?, ?, ?, ?, ?, ?)";
+        try {
+            // 1. Credit batches, keeping the generated ids in order
+            int[] batchIds = new int[chunk.size()];
+            try (PreparedStatement ps = conn.prepareStatement(batchSql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int index : chunk) {
+                    IssueOrder order = orders.get(index);
+                    ps.setInt(1, order.getProjectId());
+                    ps.setInt(2, order.getWalletId());
+                    ps.setBigDecimal(3, order.getAmount().toBigDecimal());
+                    ps.setBigDecimal(4, order.getAmount().toBigDecimal());
+                    ps.setString(5, "AVAILABLE");
+                    ps.setTimestamp(6, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    int k = 0;
+                    while (rs.next() && k < batchIds.length) {
+                        batchIds[k++] = rs.getInt(1);
+                    }
+                    if (k != batchIds.length) {
+                        throw new SQLException("Expected " + batchIds.length + " generated batch ids, got " + k);
+                    }
+                }
+            }
+
+            // 2. One balance update per wallet, in id order
+            Map<Integer, CreditAmount> totals = new TreeMap<>();
+            for (int index : chunk) {
+                IssueOrder order = orders.get(index);
+                totals.merge(order.getWalletId(), order.getAmount(), CreditAmount::plus);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(walletSql)) {
+                for (Map.Entry<Integer, CreditAmount> total : totals.entrySet()) {
+                    ps.setBigDecimal(1, total.getValue().toBigDecimal());
+                    ps.setInt(2, total.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            // 3. Transactions
+            try (PreparedStatement ps = conn.prepareStatement(transactionSql)) {
+                for (int k = 0; k < chunk.size(); k++) {
+                    IssueOrder order = orders.get(chunk.get(k));
+                    ps.setInt(1, order.getWalletId());
+                    ps.setInt(2, batchIds[k]);
+                    ps.setString(3, "ISSUE");
+                    ps.setBigDecimal(4, order.getAmount().toBigDecimal());
+                    ps.setString(5, order.getReferenceNote());
+                    ps.setTimestamp(6, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            // 4. Ledger events
+            List<LedgerEvent> events = new ArrayList<>(chunk.size());
+            for (int k = 0; k < chunk.size(); k++) {
+                IssueOrder order = orders.get(chunk.get(k));
+                events.add(LedgerEvent.forTransaction(order.getWalletId(), "ISSUE", order.getAmount(), batchIds[k]));
+            }
+            ledger.append(conn, events);
+
+            // 5. Portfolio summary
+            List<IssueOrder> chunkOrders = new ArrayList<>(chunk.size());
+            for (int index : chunk) {
+                chunkOrders.add(orders.get(index));
+            }
+            portfolio.recordIssues(conn, chunkOrders);
+
+            conn.commit();
+            for (Map.Entry<Integer, CreditAmount> total : totals.entrySet()) {
+                cache.invalidate(total.getKey());
+            }
+            for (int k = 0; k < chunk.size(); k++) {
+                IssueOrder order = orders.get(chunk.get(k));
+                batchAllocator.onBatchIssued(order.getWalletId(), batchIds[k], now.toLocalDateTime(), order.getAmount());
+                result.markIssued(chunk.get(k), batchIds[k]);
+            }
+        } catch (SQLException ex) {
+            conn.rollback();
+            System.out.println("Error issuing credit chunk: " + ex.getMessage());
+            for (int index : chunk) {
+                cache.invalidate(orders.get(index).getWalletId());
+                result.markFailed(index, ex.getMessage());
             }
         }
     }
@@ -209,19 +447,48 @@ public class WalletService {
     /**
      * Quick issue credits without project (for testing/demo purposes).
      */
-    public boolean quickIssueCredits(int walletId, double amount, String description) {
-        try {
-            String sql = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setDouble(1, amount);
-                ps.setInt(2, walletId);
-                ps.executeUpdate();
+    public boolean quickIssueCredits(int walletId, CreditAmount amount, String description) {
+        return quickIssueCredits(null, walletId, amount, description);
+    }
+
+    /**
+     * Quick issue at most once per client request id (null disables deduplication).
+     */
+    public boolean quickIssueCredits(String requestId, int walletId, CreditAmount amount, String description) {
+        String fingerprint = fingerprint(requestId, "QUICK_ISSUE", walletId, amount.toCents(), description);
+        Boolean replayed = recentReplay(requestId, fingerprint);
+        if (replayed != null) {
+            return replayed;
+        }
+
+        try (Connection conn = MyConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                IdempotencyService.Claim claim = claimRequest(conn, requestId, "QUICK_ISSUE", walletId, fingerprint);
+                if (claim != IdempotencyService.Claim.NEW) {
+                    conn.rollback();
+                    return replayResult(claim, requestId);
+                }
+
+                String sql = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setBigDecimal(1, amount.toBigDecimal());
+                    ps.setInt(2, walletId);
+                    ps.executeUpdate();
+                }
+
+                // Record simple transaction without batch
+                recordTransaction(conn, walletId, null, "ISSUE", amount, description);
+                conn.commit();
+                rememberRequest(requestId, fingerprint);
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
             }
-            
-            // Record simple transaction without batch
-            recordTransaction(walletId, null, "ISSUE", amount, description);
+            cache.invalidate(walletId);
             return true;
         } catch (SQLException ex) {
+            cache.invalidate(walletId);
             System.out.println("Error quick issuing credits: " + ex.getMessage());
             return false;
         }
@@ -229,79 +496,124 @@ public class WalletService {
 
     /**
      * Retire carbon credits (permanently used for offsetting).
+     * The balance check and the debit are a single conditional UPDATE, so concurrent
+     * retirements can never drive the wallet negative.
+     */
+    public boolean retireCredits(int walletId, CreditAmount amount, String referenceNote) {
+        return retireCredits(null, walletId, amount, referenceNote);
+    }
+
+    /**
+     * Retire credits at most once per client request id (null disables deduplication).
+     * A replay of a committed request returns the original result without retiring again.
      */
-    public boolean retireCredits(int walletId, double amount, String referenceNote) {
-        if (amount <= 0) {
+    public boolean retireCredits(String requestId, int walletId, CreditAmount amount, String referenceNote) {
+        if (!amount.isPositive()) {
             System.out.println("Amount must be positive");
             return false;
         }
-
-        Wallet wallet = getWalletById(walletId);
-        if (wallet == null || wallet.getAvailableCredits() < amount) {
-            System.out.println("Insufficient available credits");
-            return false;
+        String fingerprint = fingerprint(requestId, "RETIRE", walletId, amount.toCents(), referenceNote);
+        Boolean replayed = recentReplay(requestId, fingerprint);
+        if (replayed != null) {
+            return replayed;
         }
 
-        try {
+        lockManager.lock(walletId);
+        try (Connection conn = MyConnection.getConnection()) {
             conn.setAutoCommit(false);
-            
-            // 1. Update batches (FIFO - retire oldest credits first)
-            double remainingToRetire = amount;
-            List<CarbonCreditBatch> batches = getAvailableBatches(walletId);
-            
-            for (CarbonCreditBatch batch : batches) {
-                if (remainingToRetire == 0) break;
-                
-                double retireFromBatch = Math.min(remainingToRetire, batch.getRemainingAmount().doubleValue());
-                updateBatchRetirement(batch.getId(), retireFromBatch);
-                remainingToRetire = remainingToRetire - retireFromBatch;
-            }
-            
-            // 2. Update wallet balances
-            String updateWallet = "UPDATE wallet SET available_credits = available_credits - ?, " +
-                                  "retired_credits = retired_credits + ? WHERE id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(updateWallet)) {
-                ps.setDouble(1, amount);
-                ps.setDouble(2, amount);
-                ps.setInt(3, walletId);
-                ps.executeUpdate();
+            for (int attempt = 0; ; attempt++) {
+                BatchAllocator.Allocation allocation = null;
+                try {
+                    IdempotencyService.Claim claim = claimRequest(conn, requestId, "RETIRE", walletId, fingerprint);
+                    if (claim != IdempotencyService.Claim.NEW) {
+                        conn.rollback();
+                        return replayResult(claim, requestId);
+                    }
+
+                    // 1. Debit wallet balances (fails if not enough available credits)
+                    String updateWallet = "UPDATE wallet SET available_credits = available_credits - ?, " +
+                                          "retired_credits = retired_credits + ? " +
+                                          "WHERE id = ? AND available_credits >= ?";
+                    try (PreparedStatement ps = conn.prepareStatement(updateWallet)) {
+                        ps.setBigDecimal(1, amount.toBigDecimal());
+                        ps.setBigDecimal(2, amount.toBigDecimal());
+                        ps.setInt(3, walletId);
+                        ps.setBigDecimal(4, amount.toBigDecimal());
+                        if (ps.executeUpdate() == 0) {
+                            // Not recorded: the same request id can be retried once funds arrive
+                            conn.rollback();
+                            System.out.println("Insufficient available credits");
+                            return false;
+                        }
+                    }
+
+                    // 2. Update batches (FIFO - retire oldest credits first) in one batched statement
+                    allocation = batchAllocator.allocate(conn, walletId, amount);
+                    if (!batchAllocator.write(conn, allocation)) {
+                        // In-memory batch queue was stale: reload it from the database once
+                        conn.rollback();
+                        batchAllocator.rollback(allocation);
+                        if (attempt == 0) continue;
+                        System.out.println("Error retiring credits: batches changed concurrently");
+                        return false;
+                    }
+
+                    // 3. Record transaction
+                    recordTransaction(conn, walletId, null, "RETIRE", amount, referenceNote);
+
+                    conn.commit();
+                    rememberRequest(requestId, fingerprint);
+                    batchAllocator.commit(allocation);
+                    cache.invalidate(walletId);
+                    return true;
+                } catch (SQLException ex) {
+                    conn.rollback();
+                    if (allocation != null) {
+                        batchAllocator.rollback(allocation);
+                    }
+                    throw ex;
+                }
             }
-            
-            // 3. Record transaction
-            recordTransaction(walletId, null, "RETIRE", amount, referenceNote);
-            
-            conn.commit();
-            return true;
-            
         } catch (SQLException ex) {
-            try {
-                conn.rollback();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            cache.invalidate(walletId);
             System.out.println("Error retiring credits: " + ex.getMessage());
             return false;
         } finally {
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            lockManager.unlock(walletId);
         }
     }
 
     /**
      * Transfer credits between wallets.
+     * Both wallets are locked in a global order, and rows are updated in ascending id order
+     * so concurrent opposite transfers cannot deadlock in the database either.
+     */
+    public boolean transferCredits(int fromWalletId, int toWalletId, CreditAmount amount, String referenceNote) {
+        return transferCredits(null, fromWalletId, toWalletId, amount, referenceNote);
+    }
+
+    /**
+     * Transfer credits at most once per client request id (null disables deduplication).
+     * A double click or a retry after a timeout returns the original result without moving credits again.
      */
-    public boolean transferCredits(int fromWalletId, int toWalletId, double amount, String referenceNote) {
-        if (amount <= 0) {
+    public boolean transferCredits(String requestId, int fromWalletId, int toWalletId, CreditAmount amount, String referenceNote) {
+        if (!amount.isPositive()) {
             System.out.println("Amount must be positive");
             return false;
         }
+        if (fromWalletId == toWalletId) {
+            System.out.println("Source and destination wallets must differ");
+            return false;
+        }
+        String fingerprint = fingerprint(requestId, "TRANSFER", fromWalletId, toWalletId, amount.toCents(), referenceNote);
+        Boolean replayed = recentReplay(requestId, fingerprint);
+        if (replayed != null) {
+            return replayed;
+        }
 
         Wallet fromWallet = getWalletById(fromWalletId);
-        if (fromWallet == null || fromWallet.getAvailableCredits() < amount) {
-            System.out.println("Insufficient credits in source wallet");
+        if (fromWallet == null) {
+            System.out.println("Source wallet not found");
             return false;
         }
 
@@ -311,52 +623,67 @@ public class WalletService {
             return false;
         }
 
-        try {
+        lockManager.lockBoth(fromWalletId, toWalletId);
+        try (Connection conn = MyConnection.getConnection()) {
             conn.setAutoCommit(false);
-            
-            // 1. Deduct from source wallet
-            String deductSql = "UPDATE wallet SET available_credits = available_credits - ? WHERE id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(deductSql)) {
-                ps.setDouble(1, amount);
-                ps.setInt(2, fromWalletId);
-                ps.executeUpdate();
-            }
-            
-            // 2. Add to destination wallet
-            String addSql = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
-            try (PreparedStatement ps = conn.prepareStatement(addSql)) {
-                ps.setDouble(1, amount);
-                ps.setInt(2, toWalletId);
-                ps.executeUpdate();
-            }
-            
-            // 3. Record transactions
-            String note = String.format("%s (Transfer to Wallet #%d)", referenceNote, toWallet.getWalletNumber());
-            recordTransaction(fromWalletId, null, "TRANSFER_OUT", amount, note);
-            
-            String noteIn = String.format("%s (Transfer from Wallet #%d)", referenceNote, fromWallet.getWalletNumber());
-            recordTransaction(toWalletId, null, "TRANSFER_IN", amount, noteIn);
-            
-            conn.commit();
-            return true;
-            
-        } catch (SQLException ex) {
             try {
+                IdempotencyService.Claim claim = claimRequest(conn, requestId, "TRANSFER", fromWalletId, fingerprint);
+                if (claim != IdempotencyService.Claim.NEW) {
+                    conn.rollback();
+                    return replayResult(claim, requestId);
+                }
+
+                // 1. Move the balance, touching rows in id order
+                boolean debited;
+                if (fromWalletId < toWalletId) {
+                    debited = debitWallet(conn, fromWalletId, amount);
+                    if (debited) creditWallet(conn, toWalletId, amount);
+                } else {
+                    creditWallet(conn, toWalletId, amount);
+                    debited = debitWallet(conn, fromWalletId, amount);
+                }
+                if (!debited) {
+                    // Not recorded: the same request id can be retried once funds arrive
+                    conn.rollback();
+                    System.out.println("Insufficient credits in source wallet");
+                    return false;
+                }
+
+                // 2. Record transactions
+                String note = String.format("%s (Transfer to Wallet #%d)", referenceNote, toWallet.getWalletNumber());
+                recordTransaction(conn, fromWalletId, null, "TRANSFER_OUT", amount, note);
+
+                String noteIn = String.format("%s (Transfer from Wallet #%d)", referenceNote, fromWallet.getWalletNumber());
+                recordTransaction(conn, toWalletId, null, "TRANSFER_IN", amount, noteIn);
+
+                conn.commit();
+                rememberRequest(requestId, fingerprint);
+                cache.invalidate(fromWalletId);
+                cache.invalidate(toWalletId);
+                return true;
+            } catch (SQLException ex) {
                 conn.rollback();
-            } catch (SQLException e) {
-                e.printStackTrace();
+                throw ex;
             }
+        } catch (SQLException ex) {
+            cache.invalidate(fromWalletId);
+            cache.invalidate(toWalletId);
             System.out.println("Error transferring credits: " + ex.getMessage());
             return false;
         } finally {
-            try {
-                conn.setAutoCommit(true);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            lockManager.unlockBoth(fromWalletId, toWalletId);
         }
     }
 
+    // ==================== PORTFOLIO ====================
+
+    /**
+     * Platform-wide figures per owner type and project, from the materialized summary (no scan).
+     */
+    public List<PortfolioSummary> getPortfolioSummary() {
+        return portfolio.getSummary();
+    }
+
     // ==================== TRANSACTION HISTORY ====================
 
     /**
@@ -366,7 +693,8 @@ public class WalletService {
         List<OperationWallet> transactions = new ArrayList<>();
         String sql = "SELECT * FROM wallet_transactions WHERE wallet_id = ? ORDER BY created_at DESC";
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, walletId);
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -378,6 +706,72 @@ public class WalletService {
         return transactions;
     }
 
+    /**
+     * Get one page of a wallet's transactions, newest first.
+     * Pass null as cursor for the first page, then the page's next cursor.
+     */
+    public Page<OperationWallet> getWalletTransactionsPage(int walletId, KeysetCursor after, int limit) {
+        List<OperationWallet> transactions = new ArrayList<>();
+        String sql = "SELECT * FROM wallet_transactions WHERE wallet_id = ? " +
+                     (after != null ? "AND (created_at < ? OR (created_at = ? AND id < ?)) " : "") +
+                     "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setInt(i++, walletId);
+            if (after != null) {
+                Timestamp ts = Timestamp.valueOf(after.getTimestamp());
+                ps.setTimestamp(i++, ts);
+                ps.setTimestamp(i++, ts);
+                ps.setInt(i++, after.getId());
+            }
+            // Fetch one extra row to know whether another page exists
+            ps.setInt(i, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapResultSetToTransaction(rs));
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error fetching transactions page: " + ex.getMessage());
+        }
+
+        KeysetCursor next = null;
+        if (transactions.size() > limit) {
+            transactions.remove(limit);
+            OperationWallet last = transactions.get(limit - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getId());
+        }
+        return new Page<>(transactions, next);
+    }
+
+    /**
+     * Stream every transaction of a wallet to a callback without materializing the history.
+     * Rows are read with MySQL result streaming, so memory stays constant.
+     *
+     * @return number of rows streamed
+     */
+    public long streamWalletTransactions(int walletId, Consumer<OperationWallet> consumer) {
+        String sql = "SELECT * FROM wallet_transactions WHERE wallet_id = ? ORDER BY created_at DESC, id DESC";
+        long count = 0;
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setInt(1, walletId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToTransaction(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException ex) {
+            System.out.println("Error streaming transactions: " + ex.getMessage());
+        }
+        return count;
+    }
+
     /**
      * Get credit batches for a wallet.
      */
@@ -385,7 +779,8 @@ public class WalletService {
         List<CarbonCreditBatch> batches = new ArrayList<>();
         String sql = "SELECT * FROM carbon_credit_batches WHERE wallet_id = ? ORDER BY issued_at DESC";
         
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, walletId);
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -397,57 +792,93 @@ public class WalletService {
         return batches;
     }
 
-    // ==================== HELPER METHODS ====================
-
     /**
-     * Generate a unique random wallet number.
+     * Get one page of a wallet's credit batches, newest first.
+     * Pass null as cursor for the first page, then the page's next cursor.
      */
-    private int generateUniqueWalletNumber() {
-        int attempts = 0;
-        int maxAttempts = 50;
-        
-        while (attempts < maxAttempts) {
-            // Generate random 6-digit number (100000-999999)
-            int walletNumber = 100000 + (int)(Math.random() * 900000);
-            
-            // Check if it exists
-            if (!walletNumberExists(walletNumber)) {
-                return walletNumber;
+    public Page<CarbonCreditBatch> getWalletBatchesPage(int walletId, KeysetCursor after, int limit) {
+        List<CarbonCreditBatch> batches = new ArrayList<>();
+        String sql = "SELECT * FROM carbon_credit_batches WHERE wallet_id = ? " +
+                     (after != null ? "AND (issued_at < ? OR (issued_at = ? AND id < ?)) " : "") +
+                     "ORDER BY issued_at DESC, id DESC LIMIT ?";
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setInt(i++, walletId);
+            if (after != null) {
+                Timestamp ts = Timestamp.valueOf(after.getTimestamp());
+                ps.setTimestamp(i++, ts);
+                ps.setTimestamp(i++, ts);
+                ps.setInt(i++, after.getId());
+            }
+            // Fetch one extra row to know whether another page exists
+            ps.setInt(i, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    batches.add(mapResultSetToBatch(rs));
+                }
             }
-            attempts++;
+        } catch (SQLException ex) {
+            System.out.println("Error fetching batches page: " + ex.getMessage());
         }
-        
-        // Fallback to timestamp-based if random fails
-        return (int)(System.currentTimeMillis() % 1000000);
+
+        KeysetCursor next = null;
+        if (batches.size() > limit) {
+            batches.remove(limit);
+            CarbonCreditBatch last = batches.get(limit - 1);
+            next = new KeysetCursor(last.getIssuedAt(), last.getId());
+        }
+        return new Page<>(batches, next);
     }
 
-    private boolean walletNumberExists(int walletNumber) {
-        String sql = "SELECT COUNT(*) FROM wallet WHERE wallet_number = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, walletNumber);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
+    /**
+     * Count, total and remaining credits of a wallet's batches per (status, project),
+     * computed by the database in a single GROUP BY.
+     */
+    public List<BatchSummary> getWalletBatchSummary(int walletId) {
+        List<BatchSummary> summary = new ArrayList<>();
+        String sql = "SELECT status, project_id, COUNT(*) AS batch_count, " +
+                     "SUM(total_amount) AS total_amount, SUM(remaining_amount) AS remaining_amount " +
+                     "FROM carbon_credit_batches WHERE wallet_id = ? " +
+                     "GROUP BY status, project_id ORDER BY status, project_id";
+
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, walletId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    BatchSummary row = new BatchSummary(rs.getString("status"), rs.getInt("project_id"));
+                    row.setBatchCount(rs.getLong("batch_count"));
+                    row.setTotalAmount(CreditAmount.of(rs.getBigDecimal("total_amount")));
+                    row.setRemainingAmount(CreditAmount.of(rs.getBigDecimal("remaining_amount")));
+                    summary.add(row);
+                }
             }
         } catch (SQLException ex) {
-            System.out.println("Error checking wallet number: " + ex.getMessage());
+            System.out.println("Error fetching batch summary: " + ex.getMessage());
         }
-        return false;
+        return summary;
     }
 
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Generate a unique random wallet number.
+     */
     private String generateWalletNumber() {
         return "GW-" + System.currentTimeMillis();
     }
 
-    private int createCreditBatch(int projectId, int walletId, double amount) {
+    private int createCreditBatch(Connection conn, int projectId, int walletId, CreditAmount amount) {
         String sql = "INSERT INTO carbon_credit_batches (project_id, wallet_id, total_amount, " +
                      "remaining_amount, status, issued_at) VALUES (?, ?, ?, ?, ?, ?)";
         
         try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, projectId);
             ps.setInt(2, walletId);
-            ps.setDouble(3, amount);
-            ps.setDouble(4, amount);
+            ps.setBigDecimal(3, amount.toBigDecimal());
+            ps.setBigDecimal(4, amount.toBigDecimal());
             ps.setString(5, "AVAILABLE");
             ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
             
@@ -462,51 +893,83 @@ public class WalletService {
         return -1;
     }
 
-    private void recordTransaction(int walletId, Integer batchId, String type, double amount, String note) throws SQLException {
-        String sql = "INSERT INTO wallet_transactions (wallet_id, batch_id, type, amount, reference_note, created_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
-        
+    /**
+     * Conditionally debit available credits; returns false when the balance is too low.
+     */
+    private boolean debitWallet(Connection conn, int walletId, CreditAmount amount) throws SQLException {
+        String sql = "UPDATE wallet SET available_credits = available_credits - ? " +
+                     "WHERE id = ? AND available_credits >= ?";
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, walletId);
-            ps.setObject(2, batchId);
-            ps.setString(3, type);
-            ps.setDouble(4, amount);
-            ps.setString(5, note);
-            ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
-            ps.executeUpdate();
+            ps.setBigDecimal(1, amount.toBigDecimal());
+            ps.setInt(2, walletId);
+            ps.setBigDecimal(3, amount.toBigDecimal());
+            return ps.executeUpdate() > 0;
         }
     }
 
-    private List<CarbonCreditBatch> getAvailableBatches(int walletId) {
-        List<CarbonCreditBatch> batches = new ArrayList<>();
-        String sql = "SELECT * FROM carbon_credit_batches WHERE wallet_id = ? AND remaining_amount > 0 " +
-                     "ORDER BY issued_at ASC";
-        
+    private void creditWallet(Connection conn, int walletId, CreditAmount amount) throws SQLException {
+        String sql = "UPDATE wallet SET available_credits = available_credits + ? WHERE id = ?";
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, walletId);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                batches.add(mapResultSetToBatch(rs));
-            }
-        } catch (SQLException ex) {
-            System.out.println("Error fetching batches: " + ex.getMessage());
+            ps.setBigDecimal(1, amount.toBigDecimal());
+            ps.setInt(2, walletId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Fingerprint of a deduplicated request (null when the caller passed no request id).
+     */
+    private String fingerprint(String requestId, String operation, Object... arguments) {
+        return requestId == null ? null : idempotency.fingerprint(operation, arguments);
+    }
+
+    private Boolean recentReplay(String requestId, String fingerprint) {
+        if (requestId == null) {
+            return null;
+        }
+        IdempotencyService.Claim claim = idempotency.checkRecent(requestId, fingerprint);
+        return claim == null ? null : replayResult(claim, requestId);
+    }
+
+    private IdempotencyService.Claim claimRequest(Connection conn, String requestId, String operation,
+                                                  int walletId, String fingerprint) throws SQLException {
+        return requestId == null ? IdempotencyService.Claim.NEW : idempotency.claim(conn, requestId, operation, walletId, fingerprint);
+    }
+
+    private void rememberRequest(String requestId, String fingerprint) {
+        if (requestId != null) {
+            idempotency.remember(requestId, fingerprint);
         }
-        return batches;
     }
 
-    private void updateBatchRetirement(int batchId, double retireAmount) throws SQLException {
-        String sql = "UPDATE carbon_credit_batches SET remaining_amount = remaining_amount - ?, " +
-                     "status = CASE WHEN remaining_amount - ? = 0 THEN 'FULLY_RETIRED' " +
-                     "WHEN remaining_amount - ? < total_amount THEN 'PARTIALLY_RETIRED' " +
-                     "ELSE status END WHERE id = ?";
+    private boolean replayResult(IdempotencyService.Claim claim, String requestId) {
+        if (claim == IdempotencyService.Claim.SUCCEEDED) {
+            System.out.println("Request " + requestId + " already processed, returning its result");
+            return true;
+        }
+        System.out.println("Request id " + requestId + " was already used for another request");
+        return false;
+    }
+
+    /**
+     * Record a movement (history row, ledger event, portfolio summary) in the caller's transaction.
+     */
+    private void recordTransaction(Connection conn, int walletId, Integer batchId,
+                                   String type, CreditAmount amount, String note) throws SQLException {
+        String sql = "INSERT INTO wallet_transactions (wallet_id, batch_id, type, amount, reference_note, created_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
         
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setDouble(1, retireAmount);
-            ps.setDouble(2, retireAmount);
-            ps.setDouble(3, retireAmount);
-            ps.setInt(4, batchId);
+            ps.setInt(1, walletId);
+            ps.setObject(2, batchId);
+            ps.setString(3, type);
+            ps.setBigDecimal(4, amount.toBigDecimal());
+            ps.setString(5, note);
+            ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
             ps.executeUpdate();
         }
+        ledger.append(conn, LedgerEvent.forTransaction(walletId, type, amount, batchId));
+        portfolio.record(conn, walletId, batchId, type, amount);
     }
 
     private Wallet mapResultSetToWallet(ResultSet rs) throws SQLException {
@@ -516,8 +979,8 @@ public class WalletService {
         wallet.setName(rs.getString("name"));
         wallet.setOwnerType(rs.getString("owner_type"));
         wallet.setOwnerId(rs.getInt("owner_id"));
-        wallet.setAvailableCredits(rs.getDouble("available_credits"));
-        wallet.setRetiredCredits(rs.getDouble("retired_credits"));
+        wallet.setAvailableCredits(CreditAmount.of(rs.getBigDecimal("available_credits")));
+        wallet.setRetiredCredits(CreditAmount.of(rs.getBigDecimal("retired_credits")));
         wallet.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return wallet;
     }
@@ -527,8 +990,8 @@ public class WalletService {
         batch.setId(rs.getInt("id"));
         batch.setProjectId(rs.getInt("project_id"));
         batch.setWalletId(rs.getInt("wallet_id"));
-        batch.setTotalAmount(rs.getBigDecimal("total_amount"));
-        batch.setRemainingAmount(rs.getBigDecimal("remaining_amount"));
+        batch.setTotalAmount(CreditAmount.of(rs.getBigDecimal("total_amount")));
+        batch.setRemainingAmount(CreditAmount.of(rs.getBigDecimal("remaining_amount")));
         batch.setStatus(rs.getString("status"));
         batch.setIssuedAt(rs.getTimestamp("issued_at").toLocalDateTime());
         return batch;
@@ -540,7 +1003,7 @@ public class WalletService {
         transaction.setWalletId(rs.getInt("wallet_id"));
         transaction.setBatchId((Integer) rs.getObject("batch_id"));
         transaction.setType(rs.getString("type"));
-        transaction.setAmount(rs.getBigDecimal("amount"));
+        transaction.setAmount(CreditAmount.of(rs.getBigDecimal("amount")));
         transaction.setReferenceNote(rs.getString("reference_note"));
         transaction.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return transaction;
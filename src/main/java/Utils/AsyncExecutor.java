@@ -0,0 +1,64 @@
+package Utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded background executor for database work.
+ * Any service call can be turned into a CompletableFuture with {@link #supply} so it never runs
+ * on the JavaFX Application Thread. The pool is smaller than the connection pool so background
+ * work cannot starve it, and the queue is bounded so a burst of loads fails fast instead of piling up.
+ */
+public class AsyncExecutor {
+
+    private static final int THREADS = 6;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final AsyncExecutor instance = new AsyncExecutor();
+
+    private final ThreadPoolExecutor executor;
+
+    private AsyncExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "db-async-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static AsyncExecutor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Run a blocking call (typically a service method) in the background.
+     * A full queue completes the future exceptionally with a RejectedExecutionException.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return CompletableFuture.runAsync(work, executor);
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package Utils;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-controller helper that runs loads on {@link AsyncExecutor} and hands results back on the FX thread.
+ * Loads are keyed: starting a load cancels the previous one with the same key, so only the latest
+ * result is ever applied. Binding the loader to a node of the view cancels every pending load
+ * when the view leaves the scene (the user navigated away).
+ * Must only be used from the JavaFX Application Thread.
+ */
+public class FxLoader {
+
+    private final Map<String, CompletableFuture<?>> pending = new HashMap<>();
+
+    /**
+     * Cancel pending loads as soon as the node is detached from its scene.
+     */
+    public FxLoader bindTo(Node node) {
+        if (node != null) {
+            node.sceneProperty().addListener((obs, oldScene, newScene) -> {
+                if (oldScene != null && newScene == null) {
+                    cancelAll();
+                }
+            });
+        }
+        return this;
+    }
+
+    /**
+     * Run work in the background, then call onSuccess (or onError) on the FX thread.
+     * Results of a cancelled or superseded load are dropped.
+     */
+    public <T> void load(String key, Supplier<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        cancel(key);
+        CompletableFuture<T> future = AsyncExecutor.getInstance().supply(work);
+        pending.put(key, future);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (pending.get(key) != future) {
+                return;
+            }
+            pending.remove(key);
+            if (error == null) {
+                onSuccess.accept(result);
+            } else if (onError != null) {
+                onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                System.out.println("Chargement '" + key + "' échoué: " + error.getMessage());
+            }
+        }));
+    }
+
+    public boolean isLoading(String key) {
+        return pending.containsKey(key);
+    }
+
+    public void cancel(String key) {
+        CompletableFuture<?> previous = pending.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    public void cancelAll() {
+        for (CompletableFuture<?> future : pending.values()) {
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+}
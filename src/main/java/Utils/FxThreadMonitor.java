@@ -0,0 +1,85 @@
+package Utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long the JavaFX Application Thread is blocked.
+ * A watchdog thread posts a heartbeat with Platform.runLater every period and records how long it
+ * waited before running; on an idle UI this is close to zero, a blocking query shows up as a stall.
+ * Compare the stats before and after moving work off the FX thread.
+ */
+public class FxThreadMonitor {
+
+    private static final long PERIOD_MS = 100;
+    private static final long STALL_THRESHOLD_MS = 100;
+    private static final FxThreadMonitor instance = new FxThreadMonitor();
+
+    private final LatencyHistogram delays = new LatencyHistogram();
+    private final AtomicLong stalls = new AtomicLong();
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+    private ScheduledExecutorService watchdog;
+
+    private FxThreadMonitor() {}
+
+    public static FxThreadMonitor getInstance() {
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-thread-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        watchdog.scheduleAtFixedRate(this::postHeartbeat, PERIOD_MS, PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+        }
+    }
+
+    private void postHeartbeat() {
+        // One heartbeat in flight at a time, so a long stall is recorded once and not queued up
+        if (!heartbeatPending.compareAndSet(false, true)) {
+            return;
+        }
+        long posted = System.nanoTime();
+        Platform.runLater(() -> {
+            long delay = System.nanoTime() - posted;
+            delays.record(delay);
+            if (TimeUnit.NANOSECONDS.toMillis(delay) >= STALL_THRESHOLD_MS) {
+                stalls.incrementAndGet();
+            }
+            heartbeatPending.set(false);
+        });
+    }
+
+    public LatencyHistogram getDelays() {
+        return delays;
+    }
+
+    public long getStallCount() {
+        return stalls.get();
+    }
+
+    public void reset() {
+        delays.reset();
+        stalls.set(0);
+    }
+
+    public String getStats() {
+        return "FX thread: stalls>=" + STALL_THRESHOLD_MS + "ms=" + getStallCount() + ", heartbeat delay " + delays;
+    }
+}
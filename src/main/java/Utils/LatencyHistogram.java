@@ -0,0 +1,81 @@
+package Utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed millisecond buckets.
+ * Used to record borrow times, navigation times, etc. without allocating on the hot path.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds (inclusive, in ms) of each bucket; the last bucket catches everything above
+    private static final long[] BOUNDS_MS = {1, 5, 10, 50, 100, 500, 1000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record one sample expressed in nanoseconds.
+     */
+    public void record(long nanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < BOUNDS_MS.length && ms > BOUNDS_MS[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Snapshot of the bucket counters, one entry per bucket (last = overflow).
+     */
+    public long[] getBuckets() {
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("n=%d mean=%.2fms max=%.2fms [", getCount(), getMeanMillis(), getMaxMillis()));
+        long[] snapshot = getBuckets();
+        for (int i = 0; i < snapshot.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i < BOUNDS_MS.length ? "<=" + BOUNDS_MS[i] + "ms" : ">" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms");
+            sb.append(": ").append(snapshot[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,123 @@
+package Utils;
+
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Merges a fresh result set into the ObservableList backing a table, by primary key, instead of setAll.
+ * Only rows that really changed fire change events: unchanged rows stay the same objects at the same
+ * positions, so the table keeps its selection and scroll position and only re-lays out what moved.
+ * Must be called on the JavaFX Application Thread when the list is shown.
+ */
+public final class ListDiff {
+
+    private ListDiff() {}
+
+    /**
+     * Make target equal to fresh (same keys, same order).
+     * Rows whose key disappeared are removed, new keys are inserted, rows present in both are
+     * replaced only when sameContent says they differ. Reordered rows are moved with the fewest
+     * removals: the longest run of rows already in fresh order stays in place.
+     * @param key primary key of a row
+     * @param sameContent true when the displayed values of two rows with the same key are equal
+     */
+    public static <T, K> void merge(ObservableList<T> target, List<T> fresh,
+                                    Function<T, K> key, BiPredicate<T, T> sameContent) {
+        if (target.isEmpty() || fresh.isEmpty()) {
+            if (!target.isEmpty() || !fresh.isEmpty()) {
+                target.setAll(fresh);
+            }
+            return;
+        }
+
+        Map<K, Integer> freshIndex = new HashMap<>(fresh.size() * 2);
+        for (int i = 0; i < fresh.size(); i++) {
+            freshIndex.put(key.apply(fresh.get(i)), i);
+        }
+
+        // Position in fresh of every current row (-1: gone), then the rows that can stay in place
+        int[] positions = new int[target.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Integer position = freshIndex.get(key.apply(target.get(i)));
+            positions[i] = position == null ? -1 : position;
+        }
+        boolean[] keep = longestIncreasingRun(positions);
+
+        // Removals, last rows first so indexes stay valid, one event per contiguous range
+        for (int end = positions.length; end > 0; ) {
+            if (keep[end - 1]) {
+                end--;
+                continue;
+            }
+            int start = end - 1;
+            while (start > 0 && !keep[start - 1]) {
+                start--;
+            }
+            target.remove(start, end);
+            end = start;
+        }
+
+        // Target is now a subsequence of fresh: replace changed rows, insert missing runs
+        int j = 0;
+        for (int i = 0; i < fresh.size(); ) {
+            T row = fresh.get(i);
+            if (j < target.size() && Objects.equals(key.apply(target.get(j)), key.apply(row))) {
+                if (!sameContent.test(target.get(j), row)) {
+                    target.set(j, row);
+                }
+                i++;
+                j++;
+                continue;
+            }
+            K next = j < target.size() ? key.apply(target.get(j)) : null;
+            List<T> run = new ArrayList<>();
+            while (i < fresh.size() && (next == null || !Objects.equals(key.apply(fresh.get(i)), next))) {
+                run.add(fresh.get(i++));
+            }
+            target.addAll(j, run);
+            j += run.size();
+        }
+    }
+
+    /**
+     * Marks the longest strictly increasing subsequence of the non-negative positions (O(n log n)).
+     */
+    private static boolean[] longestIncreasingRun(int[] positions) {
+        int n = positions.length;
+        int[] tails = new int[n];          // index in positions of the smallest tail of each run length
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            if (positions[i] < 0) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (positions[tails[mid]] < positions[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] keep = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            keep[i] = true;
+        }
+        return keep;
+    }
+}
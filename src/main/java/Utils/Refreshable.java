@@ -0,0 +1,10 @@
+package Utils;
+
+/**
+ * Implemented by controllers of cached views.
+ * Called on the FX thread each time a cached view is shown again, instead of rebuilding it.
+ */
+public interface Refreshable {
+
+    void onShow();
+}
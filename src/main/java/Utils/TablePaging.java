@@ -0,0 +1,34 @@
+package Utils;
+
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * Lazy paging support for tables that load their rows page by page.
+ */
+public final class TablePaging {
+
+    private TablePaging() {}
+
+    /**
+     * Call loadMore when the vertical scroll bar of a table gets close to the bottom.
+     */
+    public static void onScrolledNearBottom(TableView<?> table, Runnable loadMore) {
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : table.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar) {
+                    ScrollBar bar = (ScrollBar) node;
+                    if (bar.getOrientation() == Orientation.VERTICAL) {
+                        bar.valueProperty().addListener((o, oldVal, newVal) -> {
+                            if (newVal.doubleValue() >= bar.getMax() * 0.9) {
+                                loadMore.run();
+                            }
+                        });
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package Utils;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of loaded FXML views (root node + controller) keyed by FXML name.
+ * Navigating back to a cached screen reuses its scene graph and calls {@link Refreshable#onShow()}
+ * on its controller instead of re-parsing the FXML and rebuilding services.
+ * Only screens listed in CACHEABLE are kept; forms that must start empty are always rebuilt.
+ * Set -Dgreenledger.viewCache=false to disable the cache (e.g. to compare navigation times).
+ * Must only be used from the JavaFX Application Thread: controllers' initialize() starts FxLoader
+ * loads and touches FX state, so every FXML is loaded on that thread.
+ */
+public class ViewRegistry {
+
+    private static final Set<String> CACHEABLE = Set.of(
+            "GestionProjet", "gestionCarbone", "greenwallet", "settings",
+            "expertProjet", "projectEvaluationView", "ownerEvaluations");
+
+    private static final ViewRegistry instance = new ViewRegistry();
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("greenledger.viewCache", "true"));
+    private final Map<String, CompletableFuture<View>> views = new ConcurrentHashMap<>();
+    private final LatencyHistogram navigationLatency = new LatencyHistogram();
+    private final Deque<String> preloadQueue = new ArrayDeque<>();
+    private boolean preloadScheduled;
+    private boolean stopped;
+
+    private ViewRegistry() {}
+
+    public static ViewRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Return the root of a view, loading it on first use.
+     * A view already in the cache gets its onShow() hook called before being returned.
+     */
+    public Parent get(String fxml) throws IOException {
+        if (!enabled || !CACHEABLE.contains(fxml)) {
+            return load(fxml).root;
+        }
+        CompletableFuture<View> cached = views.get(fxml);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            View view = cached.join();
+            if (view.controller instanceof Refreshable) {
+                ((Refreshable) view.controller).onShow();
+            }
+            return view.root;
+        }
+        // Not loaded yet (or a queued preload has not run): load now, the preload step will skip it
+        View view = load(fxml);
+        if (cached == null || !cached.complete(view)) {
+            views.put(fxml, CompletableFuture.completedFuture(view));
+        }
+        return view.root;
+    }
+
+    /**
+     * Load views ahead of time so the first navigation to them is instant.
+     * Views are loaded on the FX thread one per runLater step, so pulses (rendering and input)
+     * run between two views and the UI never freezes for the whole batch.
+     */
+    public void preload(List<String> fxmls) {
+        if (!enabled || stopped) {
+            return;
+        }
+        for (String fxml : fxmls) {
+            if (CACHEABLE.contains(fxml) && views.putIfAbsent(fxml, new CompletableFuture<>()) == null) {
+                preloadQueue.add(fxml);
+            }
+        }
+        scheduleNextPreload();
+    }
+
+    private void scheduleNextPreload() {
+        if (preloadScheduled || stopped || preloadQueue.isEmpty()) {
+            return;
+        }
+        preloadScheduled = true;
+        Platform.runLater(() -> {
+            preloadScheduled = false;
+            String fxml = preloadQueue.poll();
+            CompletableFuture<View> future = fxml == null ? null : views.get(fxml);
+            if (future != null && !future.isDone() && !stopped) {
+                try {
+                    future.complete(load(fxml));
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Préchargement de " + fxml + " échoué: " + e.getMessage());
+                    future.completeExceptionally(e);
+                    views.remove(fxml, future);
+                }
+            }
+            scheduleNextPreload();
+        });
+    }
+
+    public void invalidate(String fxml) {
+        views.remove(fxml);
+    }
+
+    public void recordNavigation(long nanos) {
+        navigationLatency.record(nanos);
+    }
+
+    public LatencyHistogram getNavigationLatency() {
+        return navigationLatency;
+    }
+
+    public String getStats() {
+        return "Navigation (cache " + (enabled ? "on" : "off") + ", " + views.size() + " vues): " + navigationLatency;
+    }
+
+    public void shutdown() {
+        stopped = true;
+        preloadQueue.clear();
+    }
+
+    private View load(String fxml) throws IOException {
+        URL resource = ViewRegistry.class.getResource("/" + fxml + ".fxml");
+        if (resource == null) {
+            throw new IOException("FXML introuvable: /" + fxml + ".fxml");
+        }
+        FXMLLoader loader = new FXMLLoader(resource);
+        Parent root = loader.load();
+        return new View(root, loader.getController());
+    }
+
+    private static class View {
+        final Parent root;
+        final Object controller;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
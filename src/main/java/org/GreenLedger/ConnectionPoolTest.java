@@ -0,0 +1,193 @@
+package org.GreenLedger;
+
+import DataBase.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * Checks of ConnectionPool behaviour against the local database: minIdle pre-fill, borrow timeout when
+ * exhausted, validation on borrow, session state reset on return, pooled handles from unwrap/getConnection,
+ * idle eviction and leak reports. Each check uses its own small pool.
+ *
+ * Usage: ConnectionPoolTest [url] [user] [password]
+ */
+public class ConnectionPoolTest {
+
+    private static String url = "jdbc:mysql://localhost:3306/greenledger";
+    private static String user = "root";
+    private static String pwd = "";
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) url = args[0];
+        if (args.length > 1) user = args[1];
+        if (args.length > 2) pwd = args[2];
+
+        preFill();
+        exhaustionTimeout();
+        validationOnBorrow();
+        stateReset();
+        pooledHandles();
+        eviction();
+        leakReport();
+
+        if (failures > 0) {
+            System.out.println("FAILED: " + failures + " check(s)");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static void preFill() {
+        ConnectionPool pool = pool(4, 2);
+        pool.start();
+        check("minIdle connections are opened on start", pool.getIdleCount() == 2 && pool.getCreatedCount() == 2);
+        pool.shutdown();
+    }
+
+    private static void exhaustionTimeout() throws SQLException {
+        ConnectionPool pool = pool(2, 0);
+        pool.setBorrowTimeoutMs(300);
+        pool.start();
+        try (Connection a = pool.borrow(); Connection b = pool.borrow()) {
+            long start = System.currentTimeMillis();
+            boolean timedOut = false;
+            try (Connection c = pool.borrow()) {
+                // the pool is exhausted, this must not be reached
+            } catch (SQLTimeoutException e) {
+                timedOut = true;
+            }
+            long waited = System.currentTimeMillis() - start;
+            check("borrow times out when the pool is exhausted", timedOut);
+            check("borrow waits for the timeout before giving up (" + waited + " ms)", waited >= 300 && waited < 2_000);
+        }
+        check("connections are reusable after the timeout", pool.getActiveCount() == 0 && pool.getIdleCount() == 2);
+        pool.shutdown();
+    }
+
+    private static void validationOnBorrow() throws Exception {
+        ConnectionPool pool = pool(2, 0);
+        pool.start();
+        long killedId;
+        try (Connection conn = pool.borrow()) {
+            killedId = connectionId(conn);
+        }
+        // Kill the idle connection server-side, then wait past the validation bypass window
+        try (Connection admin = DriverManager.getConnection(url, user, pwd);
+             Statement st = admin.createStatement()) {
+            st.execute("KILL " + killedId);
+        }
+        Thread.sleep(700);
+        try (Connection conn = pool.borrow()) {
+            check("a dead idle connection is replaced on borrow", connectionId(conn) != killedId);
+        } catch (SQLException e) {
+            check("a dead idle connection is replaced on borrow (" + e.getMessage() + ")", false);
+        }
+        check("the dead connection is destroyed", pool.getDestroyedCount() == 1);
+        pool.shutdown();
+    }
+
+    private static void stateReset() throws SQLException {
+        ConnectionPool pool = pool(1, 0);
+        pool.start();
+        long id;
+        boolean readOnly;
+        int isolation;
+        String catalog;
+        try (Connection conn = pool.borrow()) {
+            id = connectionId(conn);
+            readOnly = conn.isReadOnly();
+            isolation = conn.getTransactionIsolation();
+            catalog = conn.getCatalog();
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            conn.setCatalog("information_schema");
+        }
+        try (Connection conn = pool.borrow()) {
+            check("the same physical connection is reused", connectionId(conn) == id);
+            check("autocommit is reset on return", conn.getAutoCommit());
+            check("read-only is reset on return", conn.isReadOnly() == readOnly);
+            check("isolation is reset on return", conn.getTransactionIsolation() == isolation);
+            check("catalog is reset on return", catalog.equals(conn.getCatalog()));
+        }
+        pool.shutdown();
+    }
+
+    private static void pooledHandles() throws SQLException {
+        ConnectionPool pool = pool(1, 0);
+        pool.start();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1");
+             ResultSet rs = ps.executeQuery();
+             Statement st = conn.createStatement()) {
+            check("unwrap(Connection) returns the pooled handle", conn.unwrap(Connection.class) == conn);
+            check("PreparedStatement.getConnection returns the pooled handle", ps.getConnection() == conn);
+            check("Statement.getConnection returns the pooled handle", st.getConnection() == conn);
+            check("ResultSet.getStatement returns the pooled statement", rs.getStatement() == ps);
+            check("DatabaseMetaData.getConnection returns the pooled handle", conn.getMetaData().getConnection() == conn);
+            ps.getConnection().close();
+            check("closing through getConnection returns the connection", pool.getActiveCount() == 0);
+        }
+        pool.shutdown();
+    }
+
+    private static void eviction() throws Exception {
+        ConnectionPool pool = pool(3, 1);
+        pool.setIdleTimeoutMs(200);
+        pool.setHousekeepingPeriodMs(100);
+        pool.start();
+        try (Connection a = pool.borrow(); Connection b = pool.borrow(); Connection c = pool.borrow()) {
+            check("three connections borrowed", pool.getActiveCount() == 3);
+        }
+        check("returned connections are idle", pool.getIdleCount() == 3);
+        Thread.sleep(700);
+        check("idle connections past the timeout are evicted down to minIdle (idle=" + pool.getIdleCount() + ")",
+                pool.getIdleCount() == 1);
+        pool.shutdown();
+    }
+
+    private static void leakReport() throws Exception {
+        ConnectionPool pool = pool(1, 0);
+        pool.setLeakThresholdMs(200);
+        pool.setLeakTracing(true);
+        pool.setHousekeepingPeriodMs(100);
+        pool.start();
+        try (Connection conn = pool.borrow()) {
+            Thread.sleep(700);
+            check("a connection held past the threshold is reported once", pool.getLeakCount() == 1);
+        }
+        try (Connection conn = pool.borrow()) {
+            check("a short borrow is not reported", pool.getLeakCount() == 1);
+        }
+        pool.shutdown();
+    }
+
+    private static ConnectionPool pool(int maxSize, int minIdle) {
+        ConnectionPool pool = new ConnectionPool(url, user, pwd);
+        pool.setMaxSize(maxSize);
+        pool.setMinIdle(minIdle);
+        return pool;
+    }
+
+    private static long connectionId(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT CONNECTION_ID()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void check(String name, boolean ok) {
+        System.out.println((ok ? "[ok]   " : "[FAIL] ") + name);
+        if (!ok) {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.GreenLedger;
+
+import DataBase.MyConnection;
+import Models.CreditAmount;
+import Models.Wallet;
+import Services.WalletService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test of concurrent credit movements (WalletService transfers, retirements and issuances)
+ * against the local database.
+ * Threads move random amounts between a small set of wallets, so many operations race on the same
+ * wallets, then the run checks that:
+ * - no balance went negative,
+ * - available + retired over all test wallets equals everything issued (credits are conserved),
+ * - every wallet balance equals the sum of its wallet_transactions rows.
+ * The test wallets keep their history and are left in the database (named "stress-test credits").
+ *
+ * Usage: CreditConservationStressTest [operations (20000)] [threads (32)] [wallets (8)]
+ */
+public class CreditConservationStressTest {
+
+    private static final String NAME = "stress-test credits";
+    private static final long INITIAL_CENTS = 1_000_000;   // 10000.00 credits per wallet
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int walletCount = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        WalletService walletService = new WalletService();
+
+        List<Integer> wallets = new ArrayList<>();
+        AtomicLong issuedCents = new AtomicLong();
+        for (int i = 0; i < walletCount; i++) {
+            Wallet wallet = new Wallet("ENTERPRISE", 0);
+            wallet.setName(NAME);
+            int id = walletService.createWallet(wallet);
+            if (id == -1 || !walletService.quickIssueCredits(id, CreditAmount.ofCents(INITIAL_CENTS), "stress test")) {
+                System.out.println("FAILED: could not set up the test wallets");
+                System.exit(1);
+            }
+            wallets.add(id);
+            issuedCents.addAndGet(INITIAL_CENTS);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger transfers = new AtomicInteger();
+        AtomicInteger retirements = new AtomicInteger();
+        AtomicInteger issues = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        System.out.println("Running " + operations + " operations with " + threads + " threads on " + walletCount + " wallets...");
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (next.getAndIncrement() < operations) {
+                    int from = wallets.get(random.nextInt(walletCount));
+                    CreditAmount amount = CreditAmount.ofCents(1 + random.nextInt(50_000));
+                    int kind = random.nextInt(10);
+                    boolean ok;
+                    if (kind < 7) {
+                        int to = wallets.get(random.nextInt(walletCount));
+                        if (to == from) {
+                            continue;
+                        }
+                        ok = walletService.transferCredits(from, to, amount, "stress test");
+                        if (ok) transfers.incrementAndGet();
+                    } else if (kind < 9) {
+                        ok = walletService.retireCredits(from, amount, "stress test");
+                        if (ok) retirements.incrementAndGet();
+                    } else {
+                        ok = walletService.quickIssueCredits(from, amount, "stress test");
+                        if (ok) {
+                            issues.incrementAndGet();
+                            issuedCents.addAndGet(amount.toCents());
+                        }
+                    }
+                    if (!ok) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int applied = transfers.get() + retirements.get() + issues.get();
+
+        System.out.printf("%d operations applied in %.1f s (%.0f ops/s): %d transfers, %d retirements, %d issues, %d rejected%n",
+                applied, seconds, applied / seconds, transfers.get(), retirements.get(), issues.get(), rejected.get());
+        System.out.println("Pool: " + MyConnection.getPool().getStats());
+
+        boolean conserved = verify(wallets, issuedCents.get());
+        MyConnection.getPool().shutdown();
+        if (!conserved) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Check balances against the issued total and against each wallet's transaction history.
+     */
+    private static boolean verify(List<Integer> wallets, long issuedCents) throws SQLException {
+        String balances = "SELECT available_credits, retired_credits FROM wallet WHERE id = ?";
+        String history = "SELECT " +
+                "COALESCE(SUM(CASE WHEN type IN ('ISSUE', 'TRANSFER_IN') THEN amount " +
+                "WHEN type IN ('TRANSFER_OUT', 'RETIRE') THEN -amount ELSE 0 END), 0) AS available, " +
+                "COALESCE(SUM(CASE WHEN type = 'RETIRE' THEN amount ELSE 0 END), 0) AS retired " +
+                "FROM wallet_transactions WHERE wallet_id = ?";
+        boolean ok = true;
+        long totalCents = 0;
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement balance = conn.prepareStatement(balances);
+             PreparedStatement rows = conn.prepareStatement(history)) {
+            for (int id : wallets) {
+                CreditAmount available;
+                CreditAmount retired;
+                balance.setInt(1, id);
+                try (ResultSet rs = balance.executeQuery()) {
+                    rs.next();
+                    available = CreditAmount.of(rs.getBigDecimal("available_credits"));
+                    retired = CreditAmount.of(rs.getBigDecimal("retired_credits"));
+                }
+                rows.setInt(1, id);
+                try (ResultSet rs = rows.executeQuery()) {
+                    rs.next();
+                    CreditAmount expectedAvailable = CreditAmount.of(rs.getBigDecimal("available"));
+                    CreditAmount expectedRetired = CreditAmount.of(rs.getBigDecimal("retired"));
+                    if (!available.equals(expectedAvailable) || !retired.equals(expectedRetired)) {
+                        System.out.println("Wallet " + id + ": balance " + available + "/" + retired +
+                                ", history " + expectedAvailable + "/" + expectedRetired);
+                        ok = false;
+                    }
+                }
+                if (available.isNegative()) {
+                    System.out.println("Wallet " + id + ": negative balance " + available);
+                    ok = false;
+                }
+                totalCents += available.toCents() + retired.toCents();
+            }
+        }
+        System.out.println("Credits issued: " + CreditAmount.ofCents(issuedCents) +
+                ", available + retired: " + CreditAmount.ofCents(totalCents));
+        return ok && totalCents == issuedCents;
+    }
+}
@@ -1,15 +1,24 @@
 package org.GreenLedger;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.image.Image;
 import Utils.ThemeManager;
 import Utils.NavigationContext;
+import Utils.AsyncExecutor;
+import Utils.FxThreadMonitor;
+import Utils.ViewRegistry;
+import DataBase.MyConnection;
+import Services.IdempotencyService;
+import Services.LedgerService;
+import Services.PortfolioService;
+import Services.ProjetSearchIndex;
+import Services.ProjetService;
 
 import java.io.IOException;
+import java.util.List;
 
 public class MainFX extends Application {
 
@@ -18,6 +27,9 @@ public class MainFX extends Application {
     // ✅ Démarre uniquement sur ton écran Projet (change ici si besoin)
     private static final String START_SCREEN = "GestionProjet"; // -> fichier: /GestionProjet.fxml
 
+    // Écrans préchargés en arrière-plan après le démarrage
+    private static final List<String> PRELOAD_SCREENS = List.of("gestionCarbone", "expertProjet", "greenwallet", "settings");
+
     @Override
     public void start(Stage stage) throws IOException {
 
@@ -39,12 +51,40 @@ public class MainFX extends Application {
         stage.setMinWidth(1000);
         stage.setMinHeight(600);
         stage.show();
+
+        // Watch for FX thread stalls (blocking work on the UI thread)
+        FxThreadMonitor.getInstance().start();
+        ViewRegistry.getInstance().preload(PRELOAD_SCREENS);
+        // Check wallet balances against the credit ledger every 6 hours
+        LedgerService.getInstance().startVerificationJob(60, 360);
+        // Recompute the portfolio summary once a day to repair any drift
+        PortfolioService.getInstance().startRebuildJob(30, 24 * 60);
+        // Request ids only need to outlive client retries
+        AsyncExecutor.getInstance().run(() -> IdempotencyService.getInstance().purgeOlderThan(7));
+        AsyncExecutor.getInstance().run(() -> new ProjetService().purgeTombstones());
+        // Build the project search index before the first query needs it
+        AsyncExecutor.getInstance().run(() -> ProjetSearchIndex.getInstance().ensureLoaded());
+    }
+
+    @Override
+    public void stop() {
+        FxThreadMonitor.getInstance().stop();
+        LedgerService.getInstance().stopVerificationJob();
+        PortfolioService.getInstance().stopRebuildJob();
+        System.out.println(FxThreadMonitor.getInstance().getStats());
+        System.out.println(ViewRegistry.getInstance().getStats());
+        ViewRegistry.getInstance().shutdown();
+        AsyncExecutor.getInstance().shutdown();
+        // Release pooled database connections on exit
+        MyConnection.getPool().shutdown();
     }
 
     public static void setRoot(String fxml) throws IOException {
+        long start = System.nanoTime();
         NavigationContext.getInstance().navigateTo(fxml);
         scene.setRoot(loadFXML(fxml));
         // Theme persists because it's applied to Scene, not root!
+        ViewRegistry.getInstance().recordNavigation(System.nanoTime() - start);
     }
 
     public static Scene getScene() {
@@ -52,12 +92,8 @@ public class MainFX extends Application {
     }
 
     private static Parent loadFXML(String fxml) throws IOException {
-        java.net.URL resource = MainFX.class.getResource("/" + fxml + ".fxml");
-        if (resource == null) {
-            throw new IOException("FXML introuvable: /" + fxml + ".fxml");
-        }
-        FXMLLoader fxmlLoader = new FXMLLoader(resource);
-        return fxmlLoader.load();
+        // Cached screens are reused and refreshed; the others are parsed again
+        return ViewRegistry.getInstance().get(fxml);
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,84 @@
+package org.GreenLedger;
+
+import DataBase.MyConnection;
+import Models.Wallet;
+import Services.WalletService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test of WalletService.createWallet with generated wallet numbers, against the local database.
+ * Many more creator threads than pooled connections create wallets concurrently; the run fails if any
+ * creation fails or two wallets get the same number. Prints the createWallet throughput.
+ * The wallets created are deleted at the end.
+ *
+ * Usage: WalletCreationStressTest [wallets (500000)] [threads (32)]
+ */
+public class WalletCreationStressTest {
+
+    private static final String NAME = "stress-test wallet";
+
+    public static void main(String[] args) throws Exception {
+        int wallets = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        WalletService walletService = new WalletService();
+        Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+
+        System.out.println("Creating " + wallets + " wallets with " + threads + " threads...");
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers.execute(() -> {
+                while (next.getAndIncrement() < wallets) {
+                    Wallet wallet = new Wallet("ENTERPRISE", 0);
+                    wallet.setName(NAME);
+                    if (walletService.createWallet(wallet) == -1) {
+                        failures.incrementAndGet();
+                    } else if (!numbers.add(wallet.getWalletNumber())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Created %d wallets in %.1f s (%.0f wallets/s)%n", numbers.size(), seconds, numbers.size() / seconds);
+        System.out.println("Failed creations: " + failures.get() + ", duplicate numbers: " + duplicates.get());
+        System.out.println("Pool: " + MyConnection.getPool().getStats());
+
+        int deleted = cleanUp();
+        System.out.println("Deleted " + deleted + " test wallets");
+        MyConnection.getPool().shutdown();
+        if (failures.get() > 0 || duplicates.get() > 0) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static int cleanUp() throws SQLException {
+        int deleted = 0;
+        try (Connection conn = MyConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM wallet WHERE name = ? LIMIT 10000")) {
+            ps.setString(1, NAME);
+            int rows;
+            while ((rows = ps.executeUpdate()) > 0) {
+                deleted += rows;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,66 @@
+-- DATABASE UPDATES FOR PROJET LISTINGS
+-- Indexes backing the paginated projet listing (filter + sort column + id keyset)
+
+USE greenledger;
+
+-- ========================================
+-- FIX 1: Listing by statut, newest first (expert view)
+-- ========================================
+ALTER TABLE projet
+ADD INDEX idx_projet_statut_date (statut, date_creation, id);
+
+-- ========================================
+-- FIX 2: Listing of one entreprise, newest first
+-- ========================================
+ALTER TABLE projet
+ADD INDEX idx_projet_entreprise_date (entreprise_id, date_creation, id);
+
+-- ========================================
+-- FIX 3: Unfiltered listing, newest first / by budget
+-- ========================================
+ALTER TABLE projet
+ADD INDEX idx_projet_date (date_creation, id);
+
+ALTER TABLE projet
+ADD INDEX idx_projet_budget (budget, id);
+
+-- ========================================
+-- FIX 4: ESG scoring reads criteria by evaluation and evaluations by projet
+-- ========================================
+ALTER TABLE critere_impact
+ADD INDEX idx_critere_evaluation (id_evaluation, note);
+
+ALTER TABLE evaluation
+ADD INDEX idx_evaluation_projet (id_projet);
+
+-- ========================================
+-- FIX 5: Change tracking for incremental table refreshes (ProjetService.changesSince)
+-- updated_at moves on every insert/update, deletions leave a tombstone
+-- ========================================
+ALTER TABLE projet
+ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+ADD INDEX idx_projet_updated (updated_at);
+
+CREATE TABLE IF NOT EXISTS projet_deletions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    projet_id INT NOT NULL,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_projet_deletions_date (deleted_at)
+) ENGINE=InnoDB;
+
+-- ========================================
+-- FIX 6: ESG scoring weights per critere name (ScoringService.setPoids)
+-- nom is stored trimmed and lower-cased; criteria without a row weigh 1
+-- ========================================
+CREATE TABLE IF NOT EXISTS critere_poids (
+    nom VARCHAR(255) NOT NULL PRIMARY KEY,
+    poids DOUBLE NOT NULL DEFAULT 1
+) ENGINE=InnoDB;
+
+-- ========================================
+-- Verify all changes
+-- ========================================
+SHOW INDEX FROM projet;
+SHOW INDEX FROM critere_impact;
+DESCRIBE projet_deletions;
+DESCRIBE critere_poids;
@@ -27,6 +27,132 @@ MODIFY COLUMN batch_id BIGINT NULL;
 ALTER TABLE wallet_transactions 
 MODIFY COLUMN type ENUM('ISSUE', 'RETIRE', 'TRANSFER_IN', 'TRANSFER_OUT') NOT NULL;
 
+-- ========================================
+-- PERF 1: Keyset pagination of transaction history
+-- (Serves "WHERE wallet_id = ? ORDER BY created_at DESC, id DESC LIMIT ?"
+--  straight from the index, without sorting the whole history)
+-- ========================================
+ALTER TABLE wallet_transactions
+ADD INDEX idx_wallet_created (wallet_id, created_at, id);
+
+-- ========================================
+-- PERF 2: FIFO batch allocation for retirements
+-- (Skips fully retired batches and reads open ones oldest first)
+-- ========================================
+ALTER TABLE carbon_credit_batches
+ADD INDEX idx_wallet_open_fifo (wallet_id, remaining_amount, issued_at);
+
+-- ========================================
+-- PERF 3: Batch explorer
+-- (Keyset pages ordered by issued_at DESC, id DESC, and a covering
+--  index so the per status / per project GROUP BY never reads the rows)
+-- ========================================
+ALTER TABLE carbon_credit_batches
+ADD INDEX idx_wallet_issued (wallet_id, issued_at, id),
+ADD INDEX idx_wallet_status_project (wallet_id, status, project_id, total_amount, remaining_amount);
+
+-- ========================================
+-- LEDGER: Append-only credit ledger with snapshots
+-- (Every movement is an immutable event; balances are the sum of the
+--  events, and a snapshot every 1000 events bounds the replay)
+-- ========================================
+ALTER TABLE wallet
+ADD COLUMN ledger_seq BIGINT NOT NULL DEFAULT 0;  -- Last ledger event number of the wallet
+
+CREATE TABLE IF NOT EXISTS wallet_ledger_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    wallet_id INT NOT NULL,
+    seq BIGINT NOT NULL,  -- 1, 2, 3... per wallet
+    type ENUM('OPENING', 'ISSUE', 'RETIRE', 'TRANSFER_IN', 'TRANSFER_OUT', 'ADJUSTMENT') NOT NULL,
+    available_delta DECIMAL(15,2) NOT NULL,
+    retired_delta DECIMAL(15,2) NOT NULL,
+    batch_id INT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_wallet_seq (wallet_id, seq),
+    -- Covering index: replaying a tail only reads the index
+    INDEX idx_wallet_seq_deltas (wallet_id, seq, available_delta, retired_delta)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS wallet_ledger_snapshots (
+    wallet_id INT NOT NULL,
+    seq BIGINT NOT NULL,  -- Last event folded into the snapshot
+    available_credits DECIMAL(15,2) NOT NULL,
+    retired_credits DECIMAL(15,2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (wallet_id, seq)
+) ENGINE=InnoDB;
+
+-- Events are immutable
+DELIMITER //
+CREATE TRIGGER trg_ledger_events_no_update BEFORE UPDATE ON wallet_ledger_events
+FOR EACH ROW SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'wallet_ledger_events is append-only'//
+CREATE TRIGGER trg_ledger_events_no_delete BEFORE DELETE ON wallet_ledger_events
+FOR EACH ROW SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'wallet_ledger_events is append-only'//
+DELIMITER ;
+
+-- Start the ledger of existing wallets from their current balances
+INSERT INTO wallet_ledger_events (wallet_id, seq, type, available_delta, retired_delta)
+SELECT id, 1, 'OPENING', available_credits, retired_credits FROM wallet;
+UPDATE wallet SET ledger_seq = 1;
+
+-- ========================================
+-- IDEMPOTENCY: Request-id deduplication
+-- (A credit operation claims its request id in its own transaction,
+--  so a replayed request returns the original result)
+-- ========================================
+CREATE TABLE IF NOT EXISTS wallet_operation_requests (
+    request_id CHAR(36) PRIMARY KEY,  -- Client generated id (UUID)
+    operation VARCHAR(20) NOT NULL,   -- ISSUE, QUICK_ISSUE, RETIRE, TRANSFER
+    wallet_id INT NOT NULL,
+    fingerprint CHAR(64) NOT NULL,    -- SHA-256 of the request (operation, wallets, amount, reference)
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_created (created_at)
+) ENGINE=InnoDB;
+
+-- ========================================
+-- WALLET NUMBERS: Block-reserved sequence
+-- (Numbers come from a counter reserved 100 at a time instead of
+--  random probes; the unique key catches numbers already in use)
+-- ========================================
+CREATE TABLE IF NOT EXISTS wallet_number_sequence (
+    name VARCHAR(32) PRIMARY KEY,
+    next_value BIGINT NOT NULL  -- Next counter value; reserved in blocks, permuted into a 6-digit number
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO wallet_number_sequence (name, next_value) VALUES ('wallet', 0);
+
+ALTER TABLE wallet
+ADD UNIQUE INDEX uk_wallet_number (wallet_number);
+
+-- ========================================
+-- PORTFOLIO: Materialized portfolio summary
+-- (Issued / retired / transferred per owner type and project, kept
+--  up to date by every movement; dashboards read it instead of
+--  scanning wallet_transactions)
+-- ========================================
+CREATE TABLE IF NOT EXISTS portfolio_summary (
+    owner_type VARCHAR(50) NOT NULL,
+    project_id INT NOT NULL,  -- 0 when the movement has no project
+    slot TINYINT NOT NULL,    -- wallet_id % 16, spreads concurrent updates over 16 rows
+    movements BIGINT NOT NULL DEFAULT 0,
+    issued DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    retired DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transferred DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (owner_type, project_id, slot),
+    INDEX idx_portfolio_slot (slot)  -- PortfolioService.rebuild locks and replaces one slot at a time
+) ENGINE=InnoDB;
+
+INSERT INTO portfolio_summary (owner_type, project_id, slot, movements, issued, retired, transferred)
+SELECT w.owner_type, COALESCE(b.project_id, 0), t.wallet_id % 16, COUNT(*),
+       SUM(CASE WHEN t.type = 'ISSUE' THEN t.amount ELSE 0 END),
+       SUM(CASE WHEN t.type = 'RETIRE' THEN t.amount ELSE 0 END),
+       SUM(CASE WHEN t.type = 'TRANSFER_OUT' THEN t.amount ELSE 0 END)
+FROM wallet_transactions t
+JOIN wallet w ON w.id = t.wallet_id
+LEFT JOIN carbon_credit_batches b ON b.id = t.batch_id
+WHERE t.type <> 'TRANSFER_IN'
+GROUP BY w.owner_type, COALESCE(b.project_id, 0), t.wallet_id % 16;
+
 -- ========================================
 -- Verify all changes
 -- ========================================